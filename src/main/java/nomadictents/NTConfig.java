@@ -10,6 +10,7 @@ import net.minecraft.world.level.block.Blocks;
 import net.minecraftforge.common.ForgeConfigSpec;
 import net.minecraftforge.registries.ForgeRegistries;
 import nomadictents.block.FrameBlock;
+import nomadictents.dimension.TentGrid;
 import nomadictents.tileentity.TentDoorBlockEntity;
 
 import java.util.List;
@@ -24,6 +25,14 @@ public final class NTConfig {
     public final ForgeConfigSpec.BooleanValue RESTRICT_TELEPORT_IN_TENT;
     public final ForgeConfigSpec.BooleanValue SLEEPING_STRICT;
     public final ForgeConfigSpec.ConfigValue<List<? extends String>> DIMENSION_BLACKLIST;
+    public final ForgeConfigSpec.BooleanValue SHARED_DIMENSIONS;
+    public final ForgeConfigSpec.IntValue SHARED_DIMENSION_REGIONS;
+    public final ForgeConfigSpec.IntValue HIBERNATE_TIMEOUT;
+    public final ForgeConfigSpec.BooleanValue LAZY_DIMENSIONS;
+    public final ForgeConfigSpec.IntValue PREWARM_RADIUS;
+    public final ForgeConfigSpec.IntValue DIMENSION_POOL_SIZE;
+    public final ForgeConfigSpec.IntValue UNOCCUPIED_TICK_INTERVAL;
+    public final ForgeConfigSpec.ConfigValue<List<? extends String>> TICK_EXEMPT_TENTS;
     // Player permissions
     public final ForgeConfigSpec.BooleanValue OWNER_ONLY_ENTER;
     public final ForgeConfigSpec.BooleanValue OWNER_ONLY_PICKUP;
@@ -41,6 +50,7 @@ public final class NTConfig {
     public final ForgeConfigSpec.ConfigValue<String> FLOOR_BLOCK;
     public final ForgeConfigSpec.BooleanValue USE_ACTUAL_SIZE;
     public final ForgeConfigSpec.IntValue MALLET_EFFECTIVENESS;
+    public final ForgeConfigSpec.IntValue BUILD_BLOCKS_PER_TICK;
 
     public NTConfig(final ForgeConfigSpec.Builder builder) {
         builder.push("dimension");
@@ -60,6 +70,35 @@ public final class NTConfig {
                         "Accepts dimension id or mod id with wildcard.",
                         "Example: [\"minecraft:the_nether\", \"rftoolsdim:" + WILDCARD + "\"]")
                 .define("dimension_blacklist", Lists.newArrayList());
+        SHARED_DIMENSIONS = builder.comment("When true, new tents are packed into a few shared tent dimensions",
+                        "instead of each tent getting a dimension of its own.",
+                        "Tents that already have their own dimension are not moved.")
+                .define("shared_dimensions", false);
+        SHARED_DIMENSION_REGIONS = builder.comment("The number of region files to fill with tents before another shared tent dimension is created.",
+                        "Each region file holds " + TentGrid.CELLS_PER_REGION + " tents.")
+                .defineInRange("shared_dimension_regions", 4, 1, 64);
+        HIBERNATE_TIMEOUT = builder.comment("The number of minutes a tent dimension can be idle before it is unloaded.",
+                        "A tent is idle when it has no players, forced chunks, or pending teleports.",
+                        "Unloaded tents are loaded again the next time they are entered. Set to 0 to disable.")
+                .defineInRange("hibernate_timeout", 15, 0, 1440);
+        LAZY_DIMENSIONS = builder.comment("When true, tent dimensions that are created when the server starts are unloaded once it has started,",
+                        "and are left out of the level file so that later startups do not create them.",
+                        "Each tent is created again the first time a player enters it or logs in while inside it.")
+                .define("lazy_dimensions", true);
+        PREWARM_RADIUS = builder.comment("When a player is looking at a tent door they can enter, the tent interior starts loading.",
+                        "When a player is this many blocks from a tent door whose interior is already loaded,",
+                        "the door chunk is kept loaded. Set to 0 to disable.")
+                .defineInRange("prewarm_radius", 4, 0, 16);
+        DIMENSION_POOL_SIZE = builder.comment("The number of empty tent dimensions to create ahead of time,",
+                        "so that entering a new tent for the first time does not have to create one.",
+                        "Not used when shared_dimensions is enabled. Set to 0 to disable.")
+                .defineInRange("dimension_pool_size", 2, 0, 32);
+        UNOCCUPIED_TICK_INTERVAL = builder.comment("Mobs in a tent with no players inside only tick once every this many server ticks.",
+                        "Set to 1 to tick every tent at full speed.")
+                .defineInRange("unoccupied_tick_interval", 4, 1, 100);
+        TICK_EXEMPT_TENTS = builder.comment("Tent dimensions that always tick at full speed, such as tents with automated farms.",
+                        "Example: [\"" + NomadicTents.MODID + ":00000000-0000-0000-0000-000000000000\"]")
+                .define("tick_exempt_tents", Lists.newArrayList());
         builder.pop();
         builder.push("permissions");
         OWNER_ONLY_ENTER = builder.comment("When true, only the player who placed the tent can enter it")
@@ -98,6 +137,10 @@ public final class NTConfig {
         MALLET_EFFECTIVENESS = builder
                 .comment("The number of progress stages added by one use of the tent mallet")
                 .defineInRange("mallet_effectiveness", 2, 1, FrameBlock.MAX_PROGRESS);
+        BUILD_BLOCKS_PER_TICK = builder.comment("The number of blocks that can be placed each tick while building tent interiors.",
+                        "Large tents are built over several ticks and the player enters when the tent is finished.",
+                        "Shared by all tents being built at the same time. Set to 0 to build each tent at once.")
+                .defineInRange("build_blocks_per_tick", 4096, 0, 1000000);
         builder.pop();
     }
 
@@ -36,6 +36,7 @@ import nomadictents.recipe.TentLayerRecipe;
 import nomadictents.recipe.TentSizeRecipe;
 import nomadictents.structure.LocStructureProcessor;
 import nomadictents.structure.ShamiyanaStructureProcessor;
+import nomadictents.structure.TentInteriorProcessor;
 import nomadictents.structure.TentPlacer;
 import nomadictents.structure.TepeeStructureProcessor;
 import nomadictents.tileentity.TentDoorBlockEntity;
@@ -237,6 +238,7 @@ public final class NTRegistry {
     public static StructureProcessorType<TepeeStructureProcessor> TEPEE_PROCESSOR;
     public static StructureProcessorType<ShamiyanaStructureProcessor> SHAMIYANA_PROCESSOR;
     public static StructureProcessorType<LocStructureProcessor> LOC_PROCESSOR;
+    public static StructureProcessorType<TentInteriorProcessor> TENT_INTERIOR_PROCESSOR;
 
 
     public static void onSetup(FMLCommonSetupEvent event) {
@@ -246,6 +248,8 @@ public final class NTRegistry {
         SHAMIYANA_PROCESSOR = StructureProcessorType.register(MODID + ":shamiyana_processor", ShamiyanaStructureProcessor.CODEC);
         // register loc processor
         LOC_PROCESSOR = StructureProcessorType.register(MODID + ":loc_processor", LocStructureProcessor.CODEC);
+        // register tent interior processor
+        TENT_INTERIOR_PROCESSOR = StructureProcessorType.register(MODID + ":tent_interior_processor", TentInteriorProcessor.CODEC);
         // register chunk generator
         event.enqueueWork(() -> {
             Registry.register(BuiltInRegistries.CHUNK_GENERATOR, new ResourceLocation(MODID, "empty"), EmptyChunkGenerator.CODEC);
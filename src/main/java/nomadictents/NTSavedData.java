@@ -4,15 +4,25 @@ import net.minecraft.core.Registry;
 import net.minecraft.core.registries.Registries;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.StringTag;
+import net.minecraft.nbt.Tag;
 import net.minecraft.resources.ResourceKey;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.saveddata.SavedData;
+import net.minecraft.world.phys.Vec3;
+import nomadictents.dimension.TentGrid;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.UUID;
 
 public class NTSavedData extends SavedData {
@@ -21,9 +31,32 @@ public class NTSavedData extends SavedData {
     private static final String S_TENTS = "tents";
     private static final String S_ID = "id";
     private static final String S_UUID = "uuid";
+    private static final String S_CELLS = "cells";
+    private static final String S_DIMENSION = "dimension";
+    private static final String S_CELL = "cell";
+    private static final String S_NEXT_DIMENSION = "nextdimension";
+    private static final String S_NEXT_CELL = "nextcell";
+    private static final String S_KNOWN = "known";
+    private static final String S_LOGOUTS = "logouts";
+    private static final String S_POOL = "pool";
 
     private final Map<Integer, UUID> tentIdMap = new HashMap<>();
+    private final Map<Integer, TentGrid.Cell> tentCellMap = new HashMap<>();
     private int tentId;
+    private int nextDimension;
+    private int nextCell;
+    /**
+     * Tent dimensions that have been created at least once, whether or not they are currently loaded
+     */
+    private final Set<ResourceLocation> knownDimensions = new HashSet<>();
+    /**
+     * Map where keys = {Player UUID} and value = {Location inside a tent where the player logged out}
+     */
+    private final Map<UUID, LogoutLocation> logoutMap = new HashMap<>();
+    /**
+     * World UUIDs of pre-created tent levels that have not been claimed by a tent yet
+     */
+    private final List<UUID> pool = new ArrayList<>();
 
     public NTSavedData() {
     }
@@ -49,6 +82,41 @@ public class NTSavedData extends SavedData {
             tentIdMap.put(id, uuid);
         }
         tentId = nbt.getInt(S_TENT_ID);
+        // load shared dimension cells
+        tentCellMap.clear();
+        final ListTag cellTagList = nbt.getList(S_CELLS, 10);
+        for (int i = 0, l = cellTagList.size(); i < l; i++) {
+            CompoundTag entryTag = cellTagList.getCompound(i);
+            int id = entryTag.getInt(S_ID);
+            tentCellMap.put(id, new TentGrid.Cell(entryTag.getInt(S_DIMENSION), entryTag.getInt(S_CELL)));
+        }
+        nextDimension = nbt.getInt(S_NEXT_DIMENSION);
+        nextCell = nbt.getInt(S_NEXT_CELL);
+        // load known dimensions
+        knownDimensions.clear();
+        final ListTag knownTagList = nbt.getList(S_KNOWN, Tag.TAG_STRING);
+        for (int i = 0, l = knownTagList.size(); i < l; i++) {
+            ResourceLocation dimension = ResourceLocation.tryParse(knownTagList.getString(i));
+            if (dimension != null) {
+                knownDimensions.add(dimension);
+            }
+        }
+        // load logout locations
+        logoutMap.clear();
+        final ListTag logoutTagList = nbt.getList(S_LOGOUTS, 10);
+        for (int i = 0, l = logoutTagList.size(); i < l; i++) {
+            CompoundTag entryTag = logoutTagList.getCompound(i);
+            LogoutLocation location = LogoutLocation.read(entryTag);
+            if (location != null) {
+                logoutMap.put(entryTag.getUUID(S_UUID), location);
+            }
+        }
+        // load pool
+        pool.clear();
+        final ListTag poolTagList = nbt.getList(S_POOL, 10);
+        for (int i = 0, l = poolTagList.size(); i < l; i++) {
+            pool.add(poolTagList.getCompound(i).getUUID(S_UUID));
+        }
     }
 
     @Override
@@ -64,21 +132,48 @@ public class NTSavedData extends SavedData {
         nbt.put(S_TENTS, tagList);
         // write tent id
         nbt.putInt(S_TENT_ID, tentId);
+        // write shared dimension cells
+        final ListTag cellTagList = new ListTag();
+        for (final Entry<Integer, TentGrid.Cell> entry : tentCellMap.entrySet()) {
+            CompoundTag entryTag = new CompoundTag();
+            entryTag.putInt(S_ID, entry.getKey());
+            entryTag.putInt(S_DIMENSION, entry.getValue().getDimension());
+            entryTag.putInt(S_CELL, entry.getValue().getIndex());
+            cellTagList.add(entryTag);
+        }
+        nbt.put(S_CELLS, cellTagList);
+        nbt.putInt(S_NEXT_DIMENSION, nextDimension);
+        nbt.putInt(S_NEXT_CELL, nextCell);
+        // write known dimensions
+        final ListTag knownTagList = new ListTag();
+        for (ResourceLocation dimension : knownDimensions) {
+            knownTagList.add(StringTag.valueOf(dimension.toString()));
+        }
+        nbt.put(S_KNOWN, knownTagList);
+        // write logout locations
+        final ListTag logoutTagList = new ListTag();
+        for (final Entry<UUID, LogoutLocation> entry : logoutMap.entrySet()) {
+            CompoundTag entryTag = entry.getValue().write();
+            entryTag.putUUID(S_UUID, entry.getKey());
+            logoutTagList.add(entryTag);
+        }
+        nbt.put(S_LOGOUTS, logoutTagList);
+        // write pool
+        final ListTag poolTagList = new ListTag();
+        for (UUID uuid : pool) {
+            CompoundTag entryTag = new CompoundTag();
+            entryTag.putUUID(S_UUID, uuid);
+            poolTagList.add(entryTag);
+        }
+        nbt.put(S_POOL, poolTagList);
         return nbt;
     }
 
     public UUID getOrCreateUuid(final MinecraftServer server, final int tentId) {
         // create UUID and add it to the map
         if (!tentIdMap.containsKey(tentId)) {
-            // create world uuid that is not already in use
-            UUID uuid;
-            ResourceLocation dimension;
-            ResourceKey<Level> worldKey;
-            do {
-                uuid = UUID.randomUUID();
-                dimension = new ResourceLocation(NomadicTents.MODID, uuid.toString());
-                worldKey = ResourceKey.create(Registries.DIMENSION, dimension);
-            } while (server.levelKeys().contains(worldKey));
+            // claim a pre-created level if one is available
+            UUID uuid = pool.isEmpty() ? createUuid(server) : pool.remove(0);
             // add uuid to the map
             tentIdMap.put(tentId, uuid);
             this.setDirty();
@@ -87,12 +182,166 @@ public class NTSavedData extends SavedData {
         return tentIdMap.get(tentId);
     }
 
-    public ResourceKey<Level> getOrCreateKey(final MinecraftServer server, final int tentId) {
-        UUID uuid = getOrCreateUuid(server, tentId);
+    /**
+     * Allocates the next free cell of the shared dimension grid to the given tent.
+     * Cells are never reused because tents are never destroyed, only picked up.
+     *
+     * @param tentId the tent ID
+     * @return the cell assigned to this tent
+     */
+    public TentGrid.Cell getOrCreateCell(final int tentId) {
+        TentGrid.Cell cell = tentCellMap.get(tentId);
+        if (null == cell) {
+            // open the next shared dimension when this one is full
+            if (nextCell >= TentGrid.getCellsPerDimension()) {
+                nextDimension++;
+                nextCell = 0;
+            }
+            cell = new TentGrid.Cell(nextDimension, nextCell++);
+            tentCellMap.put(tentId, cell);
+            this.setDirty();
+        }
+        return cell;
+    }
+
+    /**
+     * @param tentId the tent ID
+     * @return the shared dimension cell of the tent, or null if the tent has a dimension of its own
+     */
+    @Nullable
+    public TentGrid.Cell getCell(final int tentId) {
+        return tentCellMap.get(tentId);
+    }
+
+    /**
+     * @param tentId the tent ID
+     * @return true if the tent is (or will be) placed in a shared dimension
+     */
+    public boolean isShared(final int tentId) {
+        // tents that already have a dimension of their own keep using it
+        if (tentIdMap.containsKey(tentId)) {
+            return false;
+        }
+        return tentCellMap.containsKey(tentId) || NomadicTents.CONFIG.SHARED_DIMENSIONS.get();
+    }
+
+    /**
+     * @param server the minecraft server
+     * @return a world uuid that is not already in use
+     */
+    public UUID createUuid(final MinecraftServer server) {
+        UUID uuid;
+        do {
+            uuid = UUID.randomUUID();
+        } while (server.levelKeys().contains(getKey(uuid)) || pool.contains(uuid) || tentIdMap.containsValue(uuid));
+        return uuid;
+    }
+
+    /**
+     * @param uuid a world uuid
+     * @return the level key for the given world uuid
+     */
+    public static ResourceKey<Level> getKey(final UUID uuid) {
         ResourceLocation dimension = new ResourceLocation(NomadicTents.MODID, uuid.toString());
         return ResourceKey.create(Registries.DIMENSION, dimension);
     }
 
+    /**
+     * Adds a pre-created tent level to the pool so that it can be claimed by a new tent
+     *
+     * @param uuid the world uuid of the pre-created level
+     */
+    public void addPooled(final UUID uuid) {
+        pool.add(uuid);
+        this.setDirty();
+    }
+
+    /**
+     * @return the number of pre-created tent levels that have not been claimed
+     */
+    public int getPoolSize() {
+        return pool.size();
+    }
+
+    /**
+     * @param dimension a dimension ID
+     * @return true if the dimension is a pre-created tent level that has not been claimed
+     */
+    public boolean isPooled(final ResourceLocation dimension) {
+        for (UUID uuid : pool) {
+            if (uuid.toString().equals(dimension.getPath()) && NomadicTents.MODID.equals(dimension.getNamespace())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public ResourceKey<Level> getOrCreateKey(final MinecraftServer server, final int tentId) {
+        if (isShared(tentId)) {
+            return getOrCreateCell(tentId).getDimensionKey();
+        }
+        return getKey(getOrCreateUuid(server, tentId));
+    }
+
+    /**
+     * Finds the tent level of the given tent without assigning one
+     *
+     * @param tentId the tent ID
+     * @return the level key of the tent, or null if the tent has not been given a level yet
+     */
+    @Nullable
+    public ResourceKey<Level> getKey(final int tentId) {
+        TentGrid.Cell cell = tentCellMap.get(tentId);
+        if (cell != null) {
+            return cell.getDimensionKey();
+        }
+        UUID uuid = tentIdMap.get(tentId);
+        if (uuid != null) {
+            return getKey(uuid);
+        }
+        return null;
+    }
+
+    /**
+     * Records a tent dimension so it can be created on demand after it is unloaded
+     *
+     * @param dimension the tent dimension ID
+     */
+    public void addKnownDimension(final ResourceLocation dimension) {
+        if (knownDimensions.add(dimension)) {
+            this.setDirty();
+        }
+    }
+
+    /**
+     * @return an unmodifiable view of all tent dimensions that have been created
+     */
+    public Set<ResourceLocation> getKnownDimensions() {
+        return Collections.unmodifiableSet(knownDimensions);
+    }
+
+    /**
+     * @param player   the player UUID
+     * @param location the location inside a tent where the player logged out
+     */
+    public void putLogoutLocation(final UUID player, final LogoutLocation location) {
+        logoutMap.put(player, location);
+        this.setDirty();
+    }
+
+    /**
+     * @param player the player UUID
+     * @return the location inside a tent where the player logged out, or null if there is none
+     */
+    @Nullable
+    public LogoutLocation removeLogoutLocation(final UUID player) {
+        LogoutLocation location = logoutMap.remove(player);
+        if (location != null) {
+            this.setDirty();
+        }
+        return location;
+    }
+
     public int getNextTentId() {
         this.setDirty();
         return ++tentId;
@@ -101,4 +350,53 @@ public class NTSavedData extends SavedData {
     public int getCurrentTentId() {
         return tentId;
     }
+
+    public static final class LogoutLocation {
+        private static final String S_POS_X = "x";
+        private static final String S_POS_Y = "y";
+        private static final String S_POS_Z = "z";
+        private static final String S_ROTATION = "rot";
+
+        private final ResourceLocation dimension;
+        private final Vec3 pos;
+        private final float rotation;
+
+        public LogoutLocation(final ResourceLocation dimension, final Vec3 pos, final float rotation) {
+            this.dimension = dimension;
+            this.pos = pos;
+            this.rotation = rotation;
+        }
+
+        @Nullable
+        public static LogoutLocation read(final CompoundTag tag) {
+            ResourceLocation dimension = ResourceLocation.tryParse(tag.getString(S_DIMENSION));
+            if (null == dimension) {
+                return null;
+            }
+            Vec3 pos = new Vec3(tag.getDouble(S_POS_X), tag.getDouble(S_POS_Y), tag.getDouble(S_POS_Z));
+            return new LogoutLocation(dimension, pos, tag.getFloat(S_ROTATION));
+        }
+
+        public CompoundTag write() {
+            CompoundTag tag = new CompoundTag();
+            tag.putString(S_DIMENSION, dimension.toString());
+            tag.putDouble(S_POS_X, pos.x());
+            tag.putDouble(S_POS_Y, pos.y());
+            tag.putDouble(S_POS_Z, pos.z());
+            tag.putFloat(S_ROTATION, rotation);
+            return tag;
+        }
+
+        public ResourceKey<Level> getDimensionKey() {
+            return ResourceKey.create(Registries.DIMENSION, dimension);
+        }
+
+        public Vec3 getPos() {
+            return pos;
+        }
+
+        public float getRotation() {
+            return rotation;
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package nomadictents.block;
 
+import it.unimi.dsi.fastutil.longs.LongSet;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.world.item.context.BlockPlaceContext;
@@ -12,11 +13,18 @@ import net.minecraft.world.level.block.state.properties.EnumProperty;
 import net.minecraft.world.level.block.state.properties.Half;
 
 import javax.annotation.Nullable;
+import java.util.function.Predicate;
 
 public class DoubleTentBlock extends TentBlock {
 
     public static final EnumProperty<Half> HALF = BlockStateProperties.HALF;
 
+    /**
+     * Positions of the tent blocks that the current thread is placing or removing in bulk, packed with {@link BlockPos#asLong()}.
+     * The states of these blocks were already resolved, such as from a template, so they are not recalculated.
+     */
+    private static final ThreadLocal<LongSet> BULK_PLACEMENT = new ThreadLocal<>();
+
     public DoubleTentBlock(Properties properties) {
         super(properties);
         this.registerDefaultState(this.getStateDefinition().any()
@@ -37,9 +45,36 @@ public class DoubleTentBlock extends TentBlock {
     @Override
     public BlockState updateShape(BlockState stateIn, Direction facing, BlockState facingState, LevelAccessor levelIn,
                                   BlockPos currentPos, BlockPos facingPos) {
+        // keep the resolved state of tent blocks that are being placed in bulk
+        final LongSet bulk = BULK_PLACEMENT.get();
+        if (bulk != null && bulk.contains(currentPos.asLong())) {
+            return stateIn;
+        }
         return getTentBlock(stateIn, levelIn, currentPos);
     }
 
+    /**
+     * Runs the given action without recalculating the states of tent blocks at the given positions when their neighbors change.
+     * Use this when placing or removing many tent blocks whose states are already correct.
+     * Tent blocks at other positions are still updated as usual.
+     *
+     * @param positions the positions that are placed or removed, packed with {@link BlockPos#asLong()}
+     * @param action    the action that places or removes tent blocks
+     */
+    public static void runBulkPlacement(final LongSet positions, final Runnable action) {
+        final LongSet previous = BULK_PLACEMENT.get();
+        BULK_PLACEMENT.set(positions);
+        try {
+            action.run();
+        } finally {
+            if (null == previous) {
+                BULK_PLACEMENT.remove();
+            } else {
+                BULK_PLACEMENT.set(previous);
+            }
+        }
+    }
+
     /**
      * Calculates the tent block half for the given state and position
      *
@@ -50,9 +85,21 @@ public class DoubleTentBlock extends TentBlock {
      */
     @Nullable
     public BlockState getTentBlock(BlockState stateIn, LevelAccessor level, BlockPos pos) {
+        return getTentBlock(stateIn, pos, p -> level.getBlockState(p).getBlock() == this);
+    }
+
+    /**
+     * Calculates the tent block half for the given state and position
+     *
+     * @param stateIn the current state, may be null
+     * @param pos     the block position
+     * @param isSame  a predicate that is true for positions that have (or will have) this block
+     * @return the adjusted tent block state, or null if stateIn was null
+     */
+    @Nullable
+    public BlockState getTentBlock(BlockState stateIn, BlockPos pos, Predicate<BlockPos> isSame) {
         if (stateIn != null) {
-            boolean above = level.getBlockState(pos.below(1)).getBlock() == this
-                    && level.getBlockState(pos.below(2)).getBlock() != this;
+            boolean above = isSame.test(pos.below(1)) && !isSame.test(pos.below(2));
             Half half = above ? Half.TOP : Half.BOTTOM;
             return stateIn.setValue(HALF, half);
         }
@@ -23,7 +23,6 @@ import net.minecraft.world.phys.shapes.Shapes;
 import net.minecraft.world.phys.shapes.VoxelShape;
 
 import javax.annotation.Nullable;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.function.Predicate;
@@ -38,7 +37,16 @@ public class FrameBlock extends Block implements SimpleWaterloggedBlock {
     public static final VoxelShape AABB_PROGRESS_1 = box(0, 0, 0, 16, 8, 16);
     public static final VoxelShape AABB_PROGRESS_2 = Shapes.block();
 
-    private static final HashMap<BlockState, VoxelShape> SHAPES = new HashMap<>();
+    /**
+     * The shape for each progress value, indexed by {@link #PROGRESS}
+     */
+    private static final VoxelShape[] SHAPES = new VoxelShape[MAX_PROGRESS + 1];
+
+    static {
+        for (int progress = 0; progress <= MAX_PROGRESS; progress++) {
+            SHAPES[progress] = createShape(progress);
+        }
+    }
 
     public FrameBlock(Properties properties) {
         super(properties);
@@ -47,6 +55,19 @@ public class FrameBlock extends Block implements SimpleWaterloggedBlock {
                 .setValue(PROGRESS, 0));
     }
 
+    /**
+     * @param progress the frame progress
+     * @return the shape of the frame, based on its progress
+     */
+    private static VoxelShape createShape(final int progress) {
+        if (progress <= 1) {
+            return AABB_PROGRESS_0;
+        } else if (progress <= 3) {
+            return AABB_PROGRESS_1;
+        }
+        return AABB_PROGRESS_2;
+    }
+
     @Override
     protected void createBlockStateDefinition(StateDefinition.Builder<Block, BlockState> builder) {
         builder.add(WATERLOGGED).add(PROGRESS);
@@ -81,17 +102,7 @@ public class FrameBlock extends Block implements SimpleWaterloggedBlock {
 
     @Override
     public VoxelShape getShape(BlockState state, BlockGetter reader, BlockPos pos, CollisionContext context) {
-        if (!SHAPES.containsKey(state)) {
-            int progress = state.getValue(PROGRESS);
-            if (progress <= 1) {
-                SHAPES.put(state, AABB_PROGRESS_0);
-            } else if (progress <= 3) {
-                SHAPES.put(state, AABB_PROGRESS_1);
-            } else {
-                SHAPES.put(state, AABB_PROGRESS_2);
-            }
-        }
-        return SHAPES.get(state);
+        return SHAPES[state.getValue(PROGRESS)];
     }
 
     @Override
@@ -2,7 +2,6 @@ package nomadictents.block;
 
 import net.minecraft.core.BlockPos;
 import net.minecraft.util.StringRepresentable;
-import net.minecraft.world.level.LevelAccessor;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.block.state.StateDefinition;
@@ -10,6 +9,7 @@ import net.minecraft.world.level.block.state.properties.EnumProperty;
 import net.minecraft.world.level.block.state.properties.Half;
 
 import javax.annotation.Nullable;
+import java.util.function.Predicate;
 
 public class QuarterTentBlock extends DoubleTentBlock {
 
@@ -31,20 +31,19 @@ public class QuarterTentBlock extends DoubleTentBlock {
      * Calculates the tent block half for the given state and position
      *
      * @param stateIn the current state, may be null
-     * @param level   the level
      * @param pos     the block position
+     * @param isSame  a predicate that is true for positions that have (or will have) this block
      * @return the adjusted tent block state, or null if stateIn was null
      */
     @Nullable
     @Override
-    public BlockState getTentBlock(BlockState stateIn, LevelAccessor level, BlockPos pos) {
+    public BlockState getTentBlock(BlockState stateIn, BlockPos pos, Predicate<BlockPos> isSame) {
         if (stateIn != null) {
-            boolean above = level.getBlockState(pos.below(1)).getBlock() == this
-                    && level.getBlockState(pos.below(2)).getBlock() != this;
-            boolean beside = (level.getBlockState(pos.north(1)).getBlock() == this && pos.getZ() % 2 == 0)
-                    || (level.getBlockState(pos.south(1)).getBlock() == this && pos.getZ() % 2 == 0)
-                    || (level.getBlockState(pos.east(1)).getBlock() == this && pos.getX() % 2 == 0)
-                    || (level.getBlockState(pos.west(1)).getBlock() == this && pos.getX() % 2 == 0);
+            boolean above = isSame.test(pos.below(1)) && !isSame.test(pos.below(2));
+            boolean beside = (isSame.test(pos.north(1)) && pos.getZ() % 2 == 0)
+                    || (isSame.test(pos.south(1)) && pos.getZ() % 2 == 0)
+                    || (isSame.test(pos.east(1)) && pos.getX() % 2 == 0)
+                    || (isSame.test(pos.west(1)) && pos.getX() % 2 == 0);
             Half half = above ? Half.TOP : Half.BOTTOM;
             Side side = beside ? Side.LEFT : Side.RIGHT;
             return stateIn.setValue(HALF, half).setValue(SIDE, side);
@@ -22,8 +22,6 @@ import net.minecraft.world.phys.shapes.CollisionContext;
 import net.minecraft.world.phys.shapes.VoxelShape;
 import nomadictents.tileentity.TentDoorBlockEntity;
 
-import java.util.HashMap;
-
 public class TentDoorBlock extends TentBlock implements EntityBlock {
 
     public static final EnumProperty<DoubleBlockHalf> HALF = DoorBlock.HALF;
@@ -33,7 +31,17 @@ public class TentDoorBlock extends TentBlock implements EntityBlock {
     protected static final VoxelShape AABB_X = box(6, 0, 0, 10, 16, 16);
     protected static final VoxelShape AABB_Z = box(0, 0, 6, 16, 16, 10);
 
-    private static final HashMap<BlockState, VoxelShape> SHAPES = new HashMap<>();
+    /**
+     * The shape for each axis, indexed by {@link Direction.Axis#ordinal()}
+     */
+    private static final VoxelShape[] SHAPES = new VoxelShape[Direction.Axis.values().length];
+
+    static {
+        SHAPES[Direction.Axis.X.ordinal()] = AABB_X;
+        // the axis property has no Y value, but the array covers every axis
+        SHAPES[Direction.Axis.Y.ordinal()] = AABB_X;
+        SHAPES[Direction.Axis.Z.ordinal()] = AABB_Z;
+    }
 
     public TentDoorBlock(Properties properties) {
         super(properties);
@@ -49,15 +57,7 @@ public class TentDoorBlock extends TentBlock implements EntityBlock {
 
     @Override
     public VoxelShape getShape(BlockState state, BlockGetter reader, BlockPos pos, CollisionContext context) {
-        if (!SHAPES.containsKey(state)) {
-            Direction.Axis axis = state.getValue(AXIS);
-            if (axis == Direction.Axis.X) {
-                SHAPES.put(state, AABB_X);
-            } else {
-                SHAPES.put(state, AABB_Z);
-            }
-        }
-        return SHAPES.get(state);
+        return SHAPES[state.getValue(AXIS).ordinal()];
     }
 
     @Override
@@ -74,6 +74,24 @@ public class TepeeBlock extends TentBlock {
         return TepeeBlock.Type.SYMBOLS.get(index).getBlockState();
     }
 
+    /**
+     * @param hash any number, such as a hash of the block position
+     * @return the pattern chosen by the given number
+     */
+    public static BlockState getPattern(final long hash) {
+        int index = (int) Math.floorMod(hash, (long) TepeeBlock.Type.PATTERNS.size());
+        return TepeeBlock.Type.PATTERNS.get(index).getBlockState();
+    }
+
+    /**
+     * @param hash any number, such as a hash of the block position
+     * @return the symbol chosen by the given number
+     */
+    public static BlockState getSymbol(final long hash) {
+        int index = (int) Math.floorMod(hash, (long) TepeeBlock.Type.SYMBOLS.size());
+        return TepeeBlock.Type.SYMBOLS.get(index).getBlockState();
+    }
+
     public enum Type implements StringRepresentable {
         BLANK("blank", false, RegistryObject.create(new ResourceLocation(NomadicTents.MODID, "blank_tepee_wall"), ForgeRegistries.BLOCKS)),
         CHANNEL("channel", true, RegistryObject.create(new ResourceLocation(NomadicTents.MODID, "channel_tepee_wall"), ForgeRegistries.BLOCKS)),
@@ -3,22 +3,30 @@ package nomadictents.dimension;
 import commoble.infiniverse.api.InfiniverseAPI;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.registries.Registries;
+import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceKey;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.util.Mth;
 import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.dimension.LevelStem;
 import net.minecraft.world.phys.Vec3;
 import net.minecraftforge.common.util.ITeleporter;
+import nomadictents.NTSavedData;
 import nomadictents.NomadicTents;
+import nomadictents.structure.TentBuildScheduler;
 import nomadictents.structure.TentPlacer;
 import nomadictents.util.Tent;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
@@ -30,25 +38,82 @@ import java.util.function.Function;
 public class DynamicDimensionHelper {
     static final InfiniverseAPI infiniverseAPI = InfiniverseAPI.get();
     /**
-     * Called when an entity enters a tent. Loads the tent dimension and any upgrades,
-     * then places the entity inside the tent.
+     * Map where keys = {Entity UUID} and value = {Future that completes once the entity is sent into the tent, or is not}
+     */
+    private static final Map<UUID, CompletableFuture<Void>> ENTERING = new HashMap<>();
+
+    /**
+     * @param entity an entity
+     * @return true if the entity is waiting for a tent to be built before it enters
+     */
+    public static boolean isEnteringTent(Entity entity) {
+        return ENTERING.containsKey(entity.getUUID());
+    }
+
+    /**
+     * Called when an entity enters a tent. Places the tent and any upgrades, then places the entity inside the tent.
+     * Does nothing if the entity is already entering a tent, so touching the door on several ticks
+     * only builds the tent and teleports the entity once.
      *
      * @param entity      the entity
      * @param targetWorld the tent dimension
      * @param tent        the tent information
      */
     public static void enterTent(Entity entity, ServerLevel targetWorld, Tent tent) {
+        final UUID uuid = entity.getUUID();
+        if (ENTERING.containsKey(uuid)) {
+            return;
+        }
+        CompletableFuture<Void> future = buildTentAndEnter(entity, targetWorld, tent);
+        if (!future.isDone()) {
+            ENTERING.put(uuid, future);
+            future.whenComplete((v, e) -> ENTERING.remove(uuid, future));
+        }
+    }
+
+    /**
+     * Loads the tent dimension and any upgrades, then places the entity inside the tent.
+     *
+     * @param entity      the entity
+     * @param targetWorld the tent dimension
+     * @param tent        the tent information
+     * @return a future that completes after the tent is built and the entity is teleported
+     */
+    private static CompletableFuture<Void> buildTentAndEnter(Entity entity, ServerLevel targetWorld, Tent tent) {
         // determine target position
-        BlockPos targetPos = Tent.calculatePos(tent.getId());
+        BlockPos targetPos = Tent.calculatePos(targetWorld.getServer(), tent.getId());
         Vec3 targetVec = Vec3.atBottomCenterOf(targetPos.relative(TentPlacer.TENT_DIRECTION, 1))
                 .add(0, 0.125D, 0);
         float targetRot = TentPlacer.TENT_DIRECTION.toYRot();
         // ensure destination chunk is loaded before we put the player in it
         targetWorld.getChunk(targetPos);
-        // place tent at location
-        TentPlacer.getInstance().placeOrUpgradeTent(targetWorld, targetPos, tent, (ServerLevel) entity.level(), entity.position(), entity.getYRot());
-        // teleport the entity
-        sendToDimension(entity, targetWorld, targetVec, targetRot);
+        // prevent the level from hibernating while the tent is built
+        TentHibernation.addPending(targetWorld.dimension());
+        // place tent at location, spread over several ticks for large tents
+        final ServerLevel sourceLevel = (ServerLevel) entity.level();
+        final Vec3 sourceVec = entity.position();
+        int budget = NomadicTents.CONFIG.BUILD_BLOCKS_PER_TICK.get();
+        final float sourceRot = entity.getYRot();
+        CompletableFuture<Void> future = TentBuildScheduler.schedule(targetWorld.dimension(), targetPos, tent,
+                () -> TentPlacer.getInstance().createBuildJob(targetWorld, targetPos, tent, sourceLevel, sourceVec, sourceRot,
+                        budget > 0 ? budget : Integer.MAX_VALUE));
+        if (!future.isDone() && entity instanceof Player) {
+            ((Player) entity).displayClientMessage(Component.translatable("tent.enter.preparing"), true);
+        }
+        return future.thenRun(() -> {
+            TentHibernation.removePending(targetWorld.getServer(), targetWorld.dimension());
+            // teleport the entity if it is still waiting at the door
+            if (entity.isAlive() && entity.level() == sourceLevel && entity.position().closerThan(sourceVec, 8.0D)) {
+                sendToDimension(entity, targetWorld, targetVec, targetRot);
+            }
+        });
+    }
+
+    /**
+     * Called when the server stops to forget entities that were entering a tent
+     */
+    public static void clear() {
+        ENTERING.clear();
     }
 
     /**
@@ -77,7 +142,7 @@ public class DynamicDimensionHelper {
      * @param targetVec   the location
      * @param targetRot   the entity rotY
      */
-    private static void sendToDimension(Entity entity, ServerLevel targetWorld, Vec3 targetVec, float targetRot) {
+    static void sendToDimension(Entity entity, ServerLevel targetWorld, Vec3 targetVec, float targetRot) {
         // ensure destination chunk is loaded before we put the player in it
         targetWorld.getChunk(new BlockPos((int) targetVec.x, (int) targetVec.y, (int) targetVec.z));
         // teleport the entity
@@ -137,8 +202,13 @@ public class DynamicDimensionHelper {
      */
     public static ServerLevel getOrCreateWorld(MinecraftServer server, ResourceKey<Level> levelKey,
                                                Function<MinecraftServer, LevelStem> dimensionFactory) {
-        return infiniverseAPI.getOrCreateLevel(server, levelKey, () ->
+        ServerLevel level = infiniverseAPI.getOrCreateLevel(server, levelKey, () ->
                 dimensionFactory.apply(server)
         );
+        // remember the tent so it can be created on demand after it is unloaded
+        if (isInsideTent(levelKey.location())) {
+            NTSavedData.get(server).addKnownDimension(levelKey.location());
+        }
+        return level;
     }
 }
\ No newline at end of file
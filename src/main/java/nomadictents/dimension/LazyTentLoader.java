@@ -0,0 +1,133 @@
+package nomadictents.dimension;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.Level;
+import nomadictents.NTSavedData;
+import nomadictents.NomadicTents;
+
+import java.util.List;
+
+/**
+ * Unloads tent dimensions once the server has started so that they do not stay loaded until they are needed.
+ * Infiniverse saves every registered dimension in the level file and creates all of them the next time the server
+ * starts. Unloading a tent with {@code markDimensionForUnregistration} also removes its level stem from the registry,
+ * so the tent is left out of the level file the next time it is saved and is not created on later startups.
+ * The first startup after this is enabled still creates every tent, and tents that are still loaded when the server
+ * stops, such as pooled tents or tents with players inside, are saved and created again on the next startup.
+ * Known tent dimensions are recorded in {@link NTSavedData}, and a tent is created again the first time
+ * a player enters it or logs in while inside it.
+ */
+public final class LazyTentLoader {
+
+    private static long startTime;
+    /**
+     * The time when the last level was loaded while the server was starting
+     */
+    private static long lastLoadTime;
+    private static boolean starting;
+    /**
+     * The number of tent levels created while the server was starting
+     */
+    private static int startupTents;
+    /**
+     * The time spent creating tent levels while the server was starting, in nanoseconds
+     */
+    private static long startupTentTime;
+
+    private LazyTentLoader() {
+    }
+
+    /**
+     * Called before the server creates its levels
+     */
+    public static void onServerAboutToStart() {
+        startTime = System.nanoTime();
+        lastLoadTime = startTime;
+        starting = true;
+        startupTents = 0;
+        startupTentTime = 0;
+    }
+
+    /**
+     * Called after a level is created. While the server is starting, levels are created one after another,
+     * so the time since the previous level was created is the time spent creating this one.
+     *
+     * @param level the level
+     */
+    public static void onLevelLoad(final ServerLevel level) {
+        if (!starting) {
+            return;
+        }
+        final long now = System.nanoTime();
+        if (DynamicDimensionHelper.isInsideTent(level)) {
+            startupTents++;
+            startupTentTime += now - lastLoadTime;
+        }
+        lastLoadTime = now;
+    }
+
+    /**
+     * Called after the server has created its levels. Records every tent dimension that was created from
+     * the level file and unloads it until it is needed.
+     *
+     * @param server the minecraft server
+     */
+    public static void onServerStarted(final MinecraftServer server) {
+        final long elapsed = (System.nanoTime() - startTime) / 1_000_000L;
+        starting = false;
+        NomadicTents.LOGGER.info("Created " + startupTents + " tent dimensions from the level file in " + startupTentTime / 1_000_000L
+                + " ms; server started in " + elapsed + " ms");
+        final NTSavedData ntSavedData = NTSavedData.get(server);
+        final List<ResourceKey<Level>> tents = DynamicDimensionHelper.getTents(server);
+        for (ResourceKey<Level> key : tents) {
+            ntSavedData.addKnownDimension(key.location());
+        }
+        if (!NomadicTents.CONFIG.LAZY_DIMENSIONS.get()) {
+            return;
+        }
+        // no players are logged in yet, so none of these levels are in use
+        int unloaded = 0;
+        for (ResourceKey<Level> key : tents) {
+            // pooled levels are only useful while they are loaded
+            if (!ntSavedData.isPooled(key.location())) {
+                DynamicDimensionHelper.infiniverseAPI.markDimensionForUnregistration(server, key);
+                unloaded++;
+            }
+        }
+        NomadicTents.LOGGER.info("Unloading " + unloaded + " of " + tents.size() + " tent dimensions until they are needed;"
+                + " they are left out of the level file the next time it is saved");
+    }
+
+    /**
+     * Remembers where the player logged out if they are inside a tent
+     *
+     * @param player the player
+     */
+    public static void onPlayerLoggedOut(final ServerPlayer player) {
+        if (DynamicDimensionHelper.isInsideTent(player.level())) {
+            NTSavedData.get(player.getServer()).putLogoutLocation(player.getUUID(),
+                    new NTSavedData.LogoutLocation(player.level().dimension().location(), player.position(), player.getYRot()));
+        }
+    }
+
+    /**
+     * Creates the tent the player logged out in, if needed, and returns the player to it.
+     * When the tent dimension is not loaded, the server places the player in the overworld instead.
+     *
+     * @param player the player
+     */
+    public static void onPlayerLoggedIn(final ServerPlayer player) {
+        final MinecraftServer server = player.getServer();
+        final NTSavedData.LogoutLocation location = NTSavedData.get(server).removeLogoutLocation(player.getUUID());
+        if (null == location || player.level().dimension() == location.getDimensionKey()) {
+            return;
+        }
+        ServerLevel targetLevel = DynamicDimensionHelper.getOrCreateWorld(server, location.getDimensionKey(), DimensionFactory::createDimension);
+        if (targetLevel != null) {
+            DynamicDimensionHelper.sendToDimension(player, targetLevel, location.getPos(), location.getRotation());
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package nomadictents.dimension;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.Level;
+import nomadictents.NomadicTents;
+import nomadictents.structure.TentPlacer;
+
+/**
+ * Layout of tents inside a shared tent dimension. Each tent is given a square cell of the grid,
+ * and cells are aligned to region files so a tent never spans more than one region.
+ * Cells are handed out one region at a time, which keeps neighboring tents in the same region file.
+ */
+public final class TentGrid {
+
+    /**
+     * The width of one cell in blocks. Two chunks fit the largest tent and its platform with room to spare.
+     */
+    public static final int CELL_SIZE = 32;
+    /**
+     * The width of one region file in blocks
+     */
+    public static final int REGION_SIZE = 512;
+    public static final int CELLS_PER_REGION_AXIS = REGION_SIZE / CELL_SIZE;
+    public static final int CELLS_PER_REGION = CELLS_PER_REGION_AXIS * CELLS_PER_REGION_AXIS;
+
+    private static final int DOOR_OFFSET_X = 8;
+    private static final int DOOR_OFFSET_Z = CELL_SIZE / 2;
+    private static final String SHARED_PREFIX = "shared_";
+
+    private TentGrid() {
+    }
+
+    /**
+     * @return the number of cells in one shared dimension, according to the config
+     */
+    public static int getCellsPerDimension() {
+        return NomadicTents.CONFIG.SHARED_DIMENSION_REGIONS.get() * CELLS_PER_REGION;
+    }
+
+    /**
+     * @param dimension the shared dimension index
+     * @return the level key of the shared dimension
+     */
+    public static ResourceKey<Level> getDimensionKey(final int dimension) {
+        return ResourceKey.create(Registries.DIMENSION, new ResourceLocation(NomadicTents.MODID, SHARED_PREFIX + dimension));
+    }
+
+    /**
+     * @param dimensionId a dimension ID
+     * @return true if the dimension is a shared tent dimension
+     */
+    public static boolean isSharedDimension(final ResourceLocation dimensionId) {
+        return DynamicDimensionHelper.isInsideTent(dimensionId) && dimensionId.getPath().startsWith(SHARED_PREFIX);
+    }
+
+    /**
+     * @param cell the cell index within its dimension
+     * @return the door position of the tent in the given cell
+     */
+    public static BlockPos getDoorPos(final int cell) {
+        int region = cell / CELLS_PER_REGION;
+        int index = cell % CELLS_PER_REGION;
+        int x = region * REGION_SIZE + (index % CELLS_PER_REGION_AXIS) * CELL_SIZE + DOOR_OFFSET_X;
+        int z = (index / CELLS_PER_REGION_AXIS) * CELL_SIZE + DOOR_OFFSET_Z;
+        return new BlockPos(x, TentPlacer.TENT_Y, z);
+    }
+
+    /**
+     * A cell that has been allocated to a tent
+     */
+    public static final class Cell {
+        private final int dimension;
+        private final int index;
+
+        public Cell(final int dimension, final int index) {
+            this.dimension = dimension;
+            this.index = index;
+        }
+
+        public int getDimension() {
+            return dimension;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public ResourceKey<Level> getDimensionKey() {
+            return TentGrid.getDimensionKey(dimension);
+        }
+
+        public BlockPos getDoorPos() {
+            return TentGrid.getDoorPos(index);
+        }
+
+        @Override
+        public String toString() {
+            return "Cell{" +
+                    "dimension=" + dimension +
+                    ", index=" + index +
+                    '}';
+        }
+    }
+}
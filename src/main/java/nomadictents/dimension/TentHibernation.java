@@ -0,0 +1,140 @@
+package nomadictents.dimension;
+
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.common.world.ForgeChunkManager;
+import nomadictents.NTSavedData;
+import nomadictents.NomadicTents;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Unloads tent dimensions that have been idle for too long. A tent level is idle when it has
+ * no players, no forced chunks and no pending teleports. Unloaded levels keep their save data
+ * and are loaded again by {@link DynamicDimensionHelper#getOrCreateWorld} the next time they are entered.
+ */
+public final class TentHibernation {
+
+    /**
+     * The number of ticks between idle checks
+     */
+    private static final int CHECK_INTERVAL = 200;
+    private static final int TICKS_PER_MINUTE = 1200;
+
+    /**
+     * Map where keys = {Tent level} and value = {Server tick when the level was last in use}
+     */
+    private static final Map<ResourceKey<Level>, Integer> LAST_ACTIVE = new HashMap<>();
+    /**
+     * Map where keys = {Tent level} and value = {Number of entities or builds that are about to use the level}.
+     * Levels in this map must not be unloaded.
+     */
+    private static final Object2IntMap<ResourceKey<Level>> PENDING = new Object2IntOpenHashMap<>();
+
+    private TentHibernation() {
+    }
+
+    /**
+     * Called every server tick. Periodically checks each tent level and unloads the ones that have been idle
+     * for longer than the configured timeout.
+     *
+     * @param server the minecraft server
+     */
+    public static void tick(final MinecraftServer server) {
+        final int tickCount = server.getTickCount();
+        final int timeout = NomadicTents.CONFIG.HIBERNATE_TIMEOUT.get() * TICKS_PER_MINUTE;
+        if (timeout <= 0 || tickCount % CHECK_INTERVAL != 0) {
+            return;
+        }
+        for (ServerLevel level : server.getAllLevels()) {
+            ResourceKey<Level> key = level.dimension();
+            if (!DynamicDimensionHelper.isInsideTent(key.location())) {
+                continue;
+            }
+            // levels that are in use are never idle
+            if (isActive(level)) {
+                LAST_ACTIVE.put(key, tickCount);
+                continue;
+            }
+            // unload levels that have been idle for too long
+            int lastActive = LAST_ACTIVE.computeIfAbsent(key, k -> tickCount);
+            if (tickCount - lastActive >= timeout) {
+                NomadicTents.LOGGER.debug("Unloading idle tent dimension '" + key.location() + "'");
+                LAST_ACTIVE.remove(key);
+                DynamicDimensionHelper.infiniverseAPI.markDimensionForUnregistration(server, key);
+            }
+        }
+    }
+
+    /**
+     * @param level a tent level
+     * @return true if the level has players, forced chunks, or pending teleports, or is in the pool
+     */
+    private static boolean isActive(final ServerLevel level) {
+        return !level.players().isEmpty()
+                || !level.getForcedChunks().isEmpty()
+                || ForgeChunkManager.hasForcedChunks(level)
+                || PENDING.containsKey(level.dimension())
+                || NTSavedData.get(level.getServer()).isPooled(level.dimension().location());
+    }
+
+    /**
+     * Resets the idle timer of the given tent level
+     *
+     * @param server the minecraft server
+     * @param key    the tent level
+     */
+    public static void touch(final MinecraftServer server, final ResourceKey<Level> key) {
+        LAST_ACTIVE.put(key, server.getTickCount());
+    }
+
+    /**
+     * Prevents the given tent level from being unloaded until {@link #removePending(MinecraftServer, ResourceKey)}
+     * is called the same number of times
+     *
+     * @param key the tent level
+     */
+    public static void addPending(final ResourceKey<Level> key) {
+        PENDING.mergeInt(key, 1, Integer::sum);
+    }
+
+    /**
+     * Allows the given tent level to be unloaded once nothing else is pending
+     * and it has been idle for the configured timeout
+     *
+     * @param server the minecraft server
+     * @param key    the tent level
+     */
+    public static void removePending(final MinecraftServer server, final ResourceKey<Level> key) {
+        int count = PENDING.getInt(key) - 1;
+        if (count > 0) {
+            PENDING.put(key, count);
+        } else {
+            PENDING.removeInt(key);
+        }
+        touch(server, key);
+    }
+
+    /**
+     * Called when a level is unloaded to forget its idle timer
+     *
+     * @param key the level
+     */
+    public static void onUnload(final ResourceKey<Level> key) {
+        LAST_ACTIVE.remove(key);
+        PENDING.removeInt(key);
+    }
+
+    /**
+     * Called when the server stops to forget all idle timers
+     */
+    public static void clear() {
+        LAST_ACTIVE.clear();
+        PENDING.clear();
+    }
+}
@@ -0,0 +1,48 @@
+package nomadictents.dimension;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import nomadictents.NTSavedData;
+import nomadictents.NomadicTents;
+
+import java.util.UUID;
+
+/**
+ * Keeps a number of empty tent levels created ahead of time. The first time a new tent is entered,
+ * {@link NTSavedData#getOrCreateUuid} claims one of these levels instead of creating one on the spot.
+ */
+public final class TentLevelPool {
+
+    /**
+     * The number of ticks between maintenance passes
+     */
+    private static final int MAINTENANCE_INTERVAL = 100;
+
+    private TentLevelPool() {
+    }
+
+    /**
+     * Called every server tick. Periodically creates one tent level until the pool is full,
+     * so that the cost of creating levels is spread over several seconds.
+     *
+     * @param server the minecraft server
+     */
+    public static void tick(final MinecraftServer server) {
+        final int poolSize = NomadicTents.CONFIG.DIMENSION_POOL_SIZE.get();
+        // shared tents do not need a level of their own
+        if (poolSize <= 0 || NomadicTents.CONFIG.SHARED_DIMENSIONS.get() || server.getTickCount() % MAINTENANCE_INTERVAL != 0) {
+            return;
+        }
+        final NTSavedData ntSavedData = NTSavedData.get(server);
+        if (ntSavedData.getPoolSize() >= poolSize) {
+            return;
+        }
+        // create a level and add it to the pool
+        final UUID uuid = ntSavedData.createUuid(server);
+        ServerLevel level = DynamicDimensionHelper.getOrCreateWorld(server, NTSavedData.getKey(uuid), DimensionFactory::createDimension);
+        if (level != null) {
+            ntSavedData.addPooled(uuid);
+            NomadicTents.LOGGER.debug("Added tent dimension '" + level.dimension().location() + "' to the pool");
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package nomadictents.dimension;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.level.TicketType;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.block.state.properties.DoubleBlockHalf;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.phys.BlockHitResult;
+import net.minecraft.world.phys.HitResult;
+import nomadictents.NTSavedData;
+import nomadictents.NomadicTents;
+import nomadictents.block.TentDoorBlock;
+import nomadictents.tileentity.TentDoorBlockEntity;
+import nomadictents.util.Tent;
+
+import javax.annotation.Nullable;
+import java.util.Comparator;
+
+/**
+ * Loads tent interiors ahead of time so that entering a tent does not have to wait for the level and door chunk to load.
+ * The tent level is only created when a player who can enter the tent is looking at its door. For doors that a player
+ * merely walks past, the door chunk is only requested if the tent level is already loaded.
+ * The door chunk is held by a short-lived ticket that expires on its own if the player walks away.
+ * Pre-warming does not reset the idle timer of the level, so it never keeps a tent level from hibernating.
+ */
+public final class TentPrewarmer {
+
+    /**
+     * The number of ticks between checks for each player
+     */
+    private static final int CHECK_INTERVAL = 10;
+    /**
+     * The number of ticks before the pre-warm ticket expires
+     */
+    private static final int TICKET_LIFESPAN = 200;
+    /**
+     * The distance in blocks at which a player looking at a door starts the pre-warm
+     */
+    private static final double LOOK_DISTANCE = 8.0D;
+
+    public static final TicketType<ChunkPos> PREWARM_TICKET = TicketType.create(NomadicTents.MODID + ":prewarm",
+            Comparator.comparingLong(ChunkPos::toLong), TICKET_LIFESPAN);
+
+    private TentPrewarmer() {
+    }
+
+    /**
+     * Called every player tick. Pre-warms the tent door the player is looking at, if the player can enter it,
+     * or else the closest loaded tent door near the player.
+     *
+     * @param player the player
+     */
+    public static void tick(final ServerPlayer player) {
+        final int radius = NomadicTents.CONFIG.PREWARM_RADIUS.get();
+        if (radius <= 0 || player.tickCount % CHECK_INTERVAL != 0 || player.isSpectator()
+                || DynamicDimensionHelper.isInsideTent(player.level())) {
+            return;
+        }
+        TentDoorBlockEntity door = getLookedAtDoor(player);
+        if (door != null && door.canEnter(player) == TentDoorBlockEntity.TentDoorResult.ALLOW) {
+            prewarm(player.getServer(), door.getTent(), true);
+            return;
+        }
+        door = findNearbyDoor(player, radius);
+        if (door != null) {
+            prewarm(player.getServer(), door.getTent(), false);
+        }
+    }
+
+    /**
+     * Requests the chunk that contains the tent door
+     *
+     * @param server      the minecraft server
+     * @param tent        the tent
+     * @param createLevel true to load the tent level if it is not loaded, false to do nothing in that case
+     */
+    public static void prewarm(final MinecraftServer server, final Tent tent, final boolean createLevel) {
+        final NTSavedData ntSavedData = NTSavedData.get(server);
+        // brand new tents have nothing to load, and must not claim a level or grid cell before they are entered
+        final ResourceKey<Level> key = ntSavedData.getKey(tent.getId());
+        if (null == key || !ntSavedData.getKnownDimensions().contains(key.location())) {
+            return;
+        }
+        ServerLevel level = server.getLevel(key);
+        if (null == level && createLevel) {
+            // a new level gets a full idle timeout from the hibernation check, so it is not touched here
+            level = DynamicDimensionHelper.getOrCreateWorld(server, key, DimensionFactory::createDimension);
+        }
+        if (null == level) {
+            return;
+        }
+        // request the door chunk without waiting for it to load
+        final ChunkPos chunkPos = new ChunkPos(Tent.calculatePos(server, tent.getId()));
+        level.getChunkSource().addRegionTicket(PREWARM_TICKET, chunkPos, 1, chunkPos);
+    }
+
+    /**
+     * @param player the player
+     * @return the tent door the player is looking at, or null
+     */
+    @Nullable
+    private static TentDoorBlockEntity getLookedAtDoor(final ServerPlayer player) {
+        HitResult hitResult = player.pick(LOOK_DISTANCE, 1.0F, false);
+        if (hitResult instanceof BlockHitResult && hitResult.getType() == HitResult.Type.BLOCK) {
+            return getDoor(player.level(), ((BlockHitResult) hitResult).getBlockPos());
+        }
+        return null;
+    }
+
+    /**
+     * @param player the player
+     * @param radius the search radius
+     * @return the closest tent door within the radius, or null
+     */
+    @Nullable
+    private static TentDoorBlockEntity findNearbyDoor(final ServerPlayer player, final int radius) {
+        final ServerLevel level = player.serverLevel();
+        // check loaded block entities near the player
+        final BlockPos center = player.blockPosition();
+        final int radiusSq = radius * radius;
+        TentDoorBlockEntity closest = null;
+        double closestDistance = Double.MAX_VALUE;
+        for (int cx = (center.getX() - radius) >> 4, mx = (center.getX() + radius) >> 4; cx <= mx; cx++) {
+            for (int cz = (center.getZ() - radius) >> 4, mz = (center.getZ() + radius) >> 4; cz <= mz; cz++) {
+                LevelChunk chunk = level.getChunkSource().getChunkNow(cx, cz);
+                if (null == chunk) {
+                    continue;
+                }
+                for (BlockEntity blockEntity : chunk.getBlockEntities().values()) {
+                    if (blockEntity instanceof TentDoorBlockEntity) {
+                        double distance = blockEntity.getBlockPos().distSqr(center);
+                        if (distance <= radiusSq && distance < closestDistance) {
+                            closest = (TentDoorBlockEntity) blockEntity;
+                            closestDistance = distance;
+                        }
+                    }
+                }
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * @param level the level
+     * @param pos   the position of either half of a tent door
+     * @return the tent door block entity, or null if there is no tent door at the position
+     */
+    @Nullable
+    private static TentDoorBlockEntity getDoor(final Level level, final BlockPos pos) {
+        BlockState state = level.getBlockState(pos);
+        if (!(state.getBlock() instanceof TentDoorBlock)) {
+            return null;
+        }
+        BlockPos doorPos = state.getValue(TentDoorBlock.HALF) == DoubleBlockHalf.UPPER ? pos.below() : pos;
+        BlockEntity blockEntity = level.getBlockEntity(doorPos);
+        return blockEntity instanceof TentDoorBlockEntity ? (TentDoorBlockEntity) blockEntity : null;
+    }
+}
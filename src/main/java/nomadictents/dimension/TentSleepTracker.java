@@ -0,0 +1,114 @@
+package nomadictents.dimension;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.Level;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps a running count of players who are awake in each level, so that the strict sleeping check
+ * does not have to walk the player list of every tent. Players who are spectating or dead are ignored,
+ * the same as {@link nomadictents.event.NTEvents.ForgeHandler}'s sleeping check.
+ * The cached state of each player is refreshed every player tick and when they change dimension or log out.
+ */
+public final class TentSleepTracker {
+
+    /**
+     * Map where keys = {Player UUID} and value = {Level and awake state last counted for the player}
+     */
+    private static final Map<UUID, PlayerState> PLAYERS = new HashMap<>();
+    /**
+     * Map where keys = {Level} and value = {Number of eligible players who are awake}
+     */
+    private static final Map<ResourceKey<Level>, Integer> AWAKE = new HashMap<>();
+    /**
+     * The number of eligible players who are awake in any tent level
+     */
+    private static int awakeInTents;
+
+    private TentSleepTracker() {
+    }
+
+    /**
+     * Updates the counts for the given player if their level or sleeping state has changed
+     *
+     * @param player the player
+     */
+    public static void update(final ServerPlayer player) {
+        final ResourceKey<Level> level = player.level().dimension();
+        final boolean awake = !player.isSpectator() && player.isAlive() && !player.isSleeping();
+        PlayerState state = PLAYERS.get(player.getUUID());
+        if (state != null) {
+            if (state.level == level && state.awake == awake) {
+                return;
+            }
+            count(state, -1);
+        }
+        state = new PlayerState(level, awake);
+        PLAYERS.put(player.getUUID(), state);
+        count(state, 1);
+    }
+
+    /**
+     * Removes the given player from the counts
+     *
+     * @param player the player
+     */
+    public static void remove(final ServerPlayer player) {
+        PlayerState state = PLAYERS.remove(player.getUUID());
+        if (state != null) {
+            count(state, -1);
+        }
+    }
+
+    /**
+     * @param level a level
+     * @return true if no eligible players are awake in the level
+     */
+    public static boolean arePlayersSleeping(final ResourceKey<Level> level) {
+        return !AWAKE.containsKey(level);
+    }
+
+    /**
+     * @return true if no eligible players are awake in any tent level
+     */
+    public static boolean arePlayersSleepingInTents() {
+        return awakeInTents == 0;
+    }
+
+    /**
+     * Called when the server stops to forget all players
+     */
+    public static void clear() {
+        PLAYERS.clear();
+        AWAKE.clear();
+        awakeInTents = 0;
+    }
+
+    private static void count(final PlayerState state, final int amount) {
+        if (!state.awake) {
+            return;
+        }
+        // remove the entry when the count reaches zero so the map only holds levels with awake players
+        AWAKE.compute(state.level, (key, value) -> {
+            int count = (value == null ? 0 : value) + amount;
+            return count > 0 ? count : null;
+        });
+        if (DynamicDimensionHelper.isInsideTent(state.level.location())) {
+            awakeInTents += amount;
+        }
+    }
+
+    private static final class PlayerState {
+        private final ResourceKey<Level> level;
+        private final boolean awake;
+
+        private PlayerState(final ResourceKey<Level> level, final boolean awake) {
+            this.level = level;
+            this.awake = awake;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package nomadictents.dimension;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
+import nomadictents.NomadicTents;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Slows down tent levels that have no players inside. Living entities in an unoccupied tent
+ * only tick once every {@link nomadictents.NTConfig#UNOCCUPIED_TICK_INTERVAL} server ticks,
+ * unless the tent is listed in {@link nomadictents.NTConfig#TICK_EXEMPT_TENTS}.
+ */
+public final class TentTickGovernor {
+
+    /**
+     * Tent levels that skip the current tick
+     */
+    private static final Set<ResourceKey<Level>> SKIPPING = new HashSet<>();
+
+    private TentTickGovernor() {
+    }
+
+    /**
+     * Called at the start of each level tick to decide whether the level skips this tick
+     *
+     * @param level the level
+     */
+    public static void onLevelTick(final ServerLevel level) {
+        final ResourceKey<Level> key = level.dimension();
+        final int interval = NomadicTents.CONFIG.UNOCCUPIED_TICK_INTERVAL.get();
+        if (interval > 1 && DynamicDimensionHelper.isInsideTent(key.location())
+                && level.players().isEmpty()
+                && level.getServer().getTickCount() % interval != 0
+                && !isExempt(key)) {
+            SKIPPING.add(key);
+        } else {
+            SKIPPING.remove(key);
+        }
+    }
+
+    /**
+     * Must only be called from the server thread
+     *
+     * @param entity a living entity on the server
+     * @return true if the entity should not tick this server tick
+     */
+    public static boolean shouldSkip(final LivingEntity entity) {
+        return !(entity instanceof Player) && !SKIPPING.isEmpty() && SKIPPING.contains(entity.level().dimension());
+    }
+
+    /**
+     * @param key a tent level
+     * @return true if the tent is in the exempt list and always ticks at full speed
+     */
+    public static boolean isExempt(final ResourceKey<Level> key) {
+        List<? extends String> exempt = NomadicTents.CONFIG.TICK_EXEMPT_TENTS.get();
+        return !exempt.isEmpty() && exempt.contains(key.location().toString());
+    }
+
+    /**
+     * Called when a level is unloaded
+     *
+     * @param key the level
+     */
+    public static void onUnload(final ResourceKey<Level> key) {
+        SKIPPING.remove(key);
+    }
+
+    /**
+     * Called when the server stops
+     */
+    public static void clear() {
+        SKIPPING.clear();
+    }
+}
@@ -3,17 +3,40 @@ package nomadictents.event;
 import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceKey;
 import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.packs.resources.ResourceManagerReloadListener;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.GameRules;
 import net.minecraft.world.level.Level;
+import net.minecraftforge.event.AddReloadListenerEvent;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.EntityEvent;
+import net.minecraftforge.event.entity.EntityJoinLevelEvent;
+import net.minecraftforge.event.entity.EntityLeaveLevelEvent;
 import net.minecraftforge.event.entity.EntityTeleportEvent;
+import net.minecraftforge.event.entity.living.LivingEvent;
 import net.minecraftforge.event.entity.player.PlayerEvent;
 import net.minecraftforge.event.entity.player.PlayerWakeUpEvent;
+import net.minecraftforge.event.level.BlockEvent;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.event.server.ServerAboutToStartEvent;
+import net.minecraftforge.event.server.ServerStartedEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import nomadictents.NomadicTents;
 import nomadictents.dimension.DynamicDimensionHelper;
-
-import java.util.List;
+import nomadictents.dimension.LazyTentLoader;
+import nomadictents.dimension.TentHibernation;
+import nomadictents.dimension.TentLevelPool;
+import nomadictents.dimension.TentPrewarmer;
+import nomadictents.dimension.TentSleepTracker;
+import nomadictents.dimension.TentTickGovernor;
+import nomadictents.structure.TentBuildScheduler;
+import nomadictents.structure.TentCompletenessIndex;
+import nomadictents.structure.TentConstructionTracker;
+import nomadictents.structure.TentTemplateCache;
+import nomadictents.util.MonsterPresenceIndex;
 
 public final class NTEvents {
 
@@ -23,6 +46,139 @@ public final class NTEvents {
 
     public static final class ForgeHandler {
 
+        @SubscribeEvent
+        public static void onServerTick(final TickEvent.ServerTickEvent event) {
+            if (event.phase != TickEvent.Phase.END) {
+                return;
+            }
+            // unload idle tent dimensions
+            TentHibernation.tick(event.getServer());
+            // create tent dimensions ahead of time
+            TentLevelPool.tick(event.getServer());
+            // continue building tents
+            TentBuildScheduler.tick(event.getServer());
+        }
+
+        @SubscribeEvent
+        public static void onLevelTick(final TickEvent.LevelTickEvent event) {
+            if (event.phase == TickEvent.Phase.START && event.level instanceof ServerLevel) {
+                // slow down tents that have no players
+                TentTickGovernor.onLevelTick((ServerLevel) event.level);
+            }
+        }
+
+        @SubscribeEvent
+        public static void onLivingTick(final LivingEvent.LivingTickEvent event) {
+            // the governor only tracks server levels, and is not safe to read from the client thread
+            if (!event.getEntity().level().isClientSide() && TentTickGovernor.shouldSkip(event.getEntity())) {
+                event.setCanceled(true);
+            }
+        }
+
+        @SubscribeEvent
+        public static void onPlayerTick(final TickEvent.PlayerTickEvent event) {
+            if (event.phase == TickEvent.Phase.END && event.player instanceof ServerPlayer) {
+                // count players who are awake
+                TentSleepTracker.update((ServerPlayer) event.player);
+                // start loading tents that the player is about to enter
+                TentPrewarmer.tick((ServerPlayer) event.player);
+            }
+        }
+
+        @SubscribeEvent
+        public static void onNeighborNotify(final BlockEvent.NeighborNotifyEvent event) {
+            if (event.getLevel() instanceof ServerLevel) {
+                // tell tent doors that a block in their tent has changed
+                TentCompletenessIndex.onBlockChanged((ServerLevel) event.getLevel(), event.getPos());
+            }
+        }
+
+        @SubscribeEvent(priority = EventPriority.LOWEST)
+        public static void onEntityJoinLevel(final EntityJoinLevelEvent event) {
+            if (!event.getLevel().isClientSide()) {
+                MonsterPresenceIndex.onJoin(event.getEntity());
+            }
+        }
+
+        @SubscribeEvent
+        public static void onEntityLeaveLevel(final EntityLeaveLevelEvent event) {
+            if (!event.getLevel().isClientSide()) {
+                MonsterPresenceIndex.onLeave(event.getEntity());
+            }
+        }
+
+        @SubscribeEvent
+        public static void onEntityEnteringSection(final EntityEvent.EnteringSection event) {
+            if (!event.getEntity().level().isClientSide()) {
+                MonsterPresenceIndex.onMove(event.getEntity(), event.getOldPos(), event.getNewPos());
+            }
+        }
+
+        @SubscribeEvent
+        public static void onLevelLoad(final LevelEvent.Load event) {
+            if (event.getLevel() instanceof ServerLevel) {
+                LazyTentLoader.onLevelLoad((ServerLevel) event.getLevel());
+            }
+        }
+
+        @SubscribeEvent
+        public static void onLevelUnload(final LevelEvent.Unload event) {
+            if (event.getLevel() instanceof ServerLevel) {
+                TentHibernation.onUnload(((ServerLevel) event.getLevel()).dimension());
+                TentTickGovernor.onUnload(((ServerLevel) event.getLevel()).dimension());
+                TentCompletenessIndex.onUnload(((ServerLevel) event.getLevel()).dimension());
+                TentConstructionTracker.onUnload(((ServerLevel) event.getLevel()).dimension());
+                MonsterPresenceIndex.onUnload(((ServerLevel) event.getLevel()).dimension());
+            }
+        }
+
+        @SubscribeEvent
+        public static void onServerAboutToStart(final ServerAboutToStartEvent event) {
+            LazyTentLoader.onServerAboutToStart();
+        }
+
+        @SubscribeEvent
+        public static void onServerStarted(final ServerStartedEvent event) {
+            LazyTentLoader.onServerStarted(event.getServer());
+            // load tent templates in the background
+            TentTemplateCache.warmup(event.getServer());
+        }
+
+        @SubscribeEvent
+        public static void onPlayerLoggedIn(final PlayerEvent.PlayerLoggedInEvent event) {
+            if (event.getEntity() instanceof ServerPlayer) {
+                LazyTentLoader.onPlayerLoggedIn((ServerPlayer) event.getEntity());
+                TentSleepTracker.update((ServerPlayer) event.getEntity());
+            }
+        }
+
+        @SubscribeEvent
+        public static void onPlayerLoggedOut(final PlayerEvent.PlayerLoggedOutEvent event) {
+            if (event.getEntity() instanceof ServerPlayer) {
+                LazyTentLoader.onPlayerLoggedOut((ServerPlayer) event.getEntity());
+                TentSleepTracker.remove((ServerPlayer) event.getEntity());
+            }
+        }
+
+        @SubscribeEvent
+        public static void onServerStopped(final ServerStoppedEvent event) {
+            TentHibernation.clear();
+            TentTickGovernor.clear();
+            TentSleepTracker.clear();
+            TentCompletenessIndex.clear();
+            TentConstructionTracker.clear();
+            MonsterPresenceIndex.clear();
+            TentBuildScheduler.clear();
+            TentTemplateCache.clear();
+            DynamicDimensionHelper.clear();
+        }
+
+        @SubscribeEvent
+        public static void onAddReloadListeners(final AddReloadListenerEvent event) {
+            // templates may have changed
+            event.addListener((ResourceManagerReloadListener) resourceManager -> TentTemplateCache.clear());
+        }
+
         @SubscribeEvent
         public static void onPlayerWake(final PlayerWakeUpEvent event) {
             if (event.getEntity().level().isClientSide()) {
@@ -35,8 +191,6 @@ public final class NTEvents {
                 NomadicTents.LOGGER.warn("Failed to load respawn dimension '" + overworldKey.location() + "'");
                 return;
             }
-            // locate tents
-            List<ResourceKey<Level>> tents = DynamicDimensionHelper.getTents(event.getEntity().getServer());
             // attempt to change daytime when sleeping inside a tent
             if (event.getEntity().isSleepingLongEnough()
                     && DynamicDimensionHelper.isInsideTent(event.getEntity().level())
@@ -46,18 +200,10 @@ public final class NTEvents {
                 boolean success = arePlayersSleeping(tent);
                 // check if all other players are sleeping
                 if (NomadicTents.CONFIG.SLEEPING_STRICT.get()) {
-                    // check overworld players
-                    success &= arePlayersSleeping(overworld);
-                    // check all players in tents
-                    for (ResourceKey<Level> tentKey : tents) {
-                        if (!success) {
-                            break;
-                        }
-                        ServerLevel t = event.getEntity().getServer().getLevel(tentKey);
-                        if (t != null) {
-                            success &= arePlayersSleeping(t);
-                        }
-                    }
+                    // check overworld players and all players in tents
+                    TentSleepTracker.update((ServerPlayer) event.getEntity());
+                    success &= TentSleepTracker.arePlayersSleeping(overworldKey)
+                            && TentSleepTracker.arePlayersSleepingInTents();
                 }
 
                 // change overworld to daytime
@@ -68,17 +214,10 @@ public final class NTEvents {
                 }
             }
 
-            // sleeping anywhere should always sync tents to overworld
-            for (ResourceKey<Level> tentKey : tents) {
-                ServerLevel tent = event.getEntity().getServer().getLevel(tentKey);
-                if (null == tent) {
-                    NomadicTents.LOGGER.warn("Failed to load tent dimension '" + tentKey.location() + "'");
-                    continue;
-                }
-                tent.setDayTime(overworld.getDayTime());
-                tent.updateSleepingPlayerList();
+            // tent levels read their time from the overworld level data, so only the sleeping flags need updating
+            if (DynamicDimensionHelper.isInsideTent(event.getEntity().level())) {
+                ((ServerLevel) event.getEntity().level()).updateSleepingPlayerList();
             }
-            // update sleeping flags
             overworld.updateSleepingPlayerList();
         }
 
@@ -96,20 +235,17 @@ public final class NTEvents {
 
         @SubscribeEvent
         public static void onPlayerChangeDimension(final PlayerEvent.PlayerChangedDimensionEvent event) {
+            if (event.getEntity() instanceof ServerPlayer) {
+                // move the player to the new level in the sleeping counts
+                TentSleepTracker.update((ServerPlayer) event.getEntity());
+            }
             if (!event.getEntity().level().isClientSide() && DynamicDimensionHelper.isInsideTent(event.getTo().location())) {
                 // locate tent dimension
                 ServerLevel tent = event.getEntity().getServer().getLevel(event.getTo());
                 if (null == tent) {
                     return;
                 }
-                // locate overworld
-                ResourceKey<Level> overworldKey = NomadicTents.CONFIG.getRespawnDimension();
-                ServerLevel overworld = event.getEntity().getServer().getLevel(overworldKey);
-                if (null == overworld) {
-                    return;
-                }
-                // sync tent time with overworld
-                tent.setDayTime(overworld.getDayTime());
+                // tent time is derived from the overworld, only the sleeping flags need updating
                 tent.updateSleepingPlayerList();
             }
         }
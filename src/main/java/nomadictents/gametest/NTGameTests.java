@@ -0,0 +1,17 @@
+package nomadictents.gametest;
+
+import nomadictents.NomadicTents;
+
+/**
+ * Shared values for the game tests in this package. Run them with the {@code gameTestServer} run configuration.
+ */
+public final class NTGameTests {
+
+    /**
+     * An empty 32x16x32 structure to run tests in
+     */
+    public static final String EMPTY = NomadicTents.MODID + ":gametest/empty";
+
+    private NTGameTests() {
+    }
+}
@@ -0,0 +1,173 @@
+package nomadictents.gametest;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.world.level.EmptyBlockGetter;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.phys.AABB;
+import net.minecraft.world.phys.shapes.CollisionContext;
+import net.minecraft.world.phys.shapes.VoxelShape;
+import net.minecraftforge.gametest.GameTestHolder;
+import net.minecraftforge.gametest.PrefixGameTestTemplate;
+import net.minecraftforge.registries.RegistryObject;
+import nomadictents.NTRegistry;
+import nomadictents.NomadicTents;
+import nomadictents.block.FrameBlock;
+import nomadictents.block.TentDoorBlock;
+import nomadictents.structure.TentPlacer;
+import nomadictents.util.TentType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+@GameTestHolder(NomadicTents.MODID)
+@PrefixGameTestTemplate(false)
+public final class TentBlockShapeTests {
+
+    private TentBlockShapeTests() {
+    }
+
+    /**
+     * The number of threads that read shapes at the same time
+     */
+    private static final int THREADS = 4;
+    /**
+     * The number of times each thread reads every shape
+     */
+    private static final int ROUNDS = 1000;
+
+    @GameTest(template = NTGameTests.EMPTY)
+    public static void frameShapes(final GameTestHelper helper) {
+        for (BlockState state : getFrameStates()) {
+            assertShape(helper, state, getExpectedFrameShape(state));
+        }
+        helper.succeed();
+    }
+
+    @GameTest(template = NTGameTests.EMPTY)
+    public static void doorShapes(final GameTestHelper helper) {
+        for (BlockState state : getDoorStates()) {
+            assertShape(helper, state, getExpectedDoorShape(state));
+        }
+        helper.succeed();
+    }
+
+    @GameTest(template = NTGameTests.EMPTY, timeoutTicks = 200)
+    public static void shapesFromManyThreads(final GameTestHelper helper) {
+        final List<BlockState> states = new ArrayList<>();
+        final List<AABB> expected = new ArrayList<>();
+        for (BlockState state : getFrameStates()) {
+            states.add(state);
+            expected.add(getExpectedFrameShape(state));
+        }
+        for (BlockState state : getDoorStates()) {
+            states.add(state);
+            expected.add(getExpectedDoorShape(state));
+        }
+        // read every shape from several threads at once, the same way chunk workers and the client do
+        final Queue<String> failures = new ConcurrentLinkedQueue<>();
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int round = 0; round < ROUNDS; round++) {
+                    for (int i = 0, n = states.size(); i < n; i++) {
+                        VoxelShape shape = states.get(i).getShape(EmptyBlockGetter.INSTANCE, BlockPos.ZERO, CollisionContext.empty());
+                        if (shape.isEmpty() || !expected.get(i).equals(shape.bounds())) {
+                            failures.add("Unexpected shape " + shape + " for " + states.get(i));
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException | ExecutionException | TimeoutException e) {
+            helper.fail("Failed to read shapes from several threads: " + e);
+        } finally {
+            executor.shutdownNow();
+        }
+        helper.assertTrue(failures.isEmpty(), failures.isEmpty() ? "" : failures.peek());
+        helper.succeed();
+    }
+
+    /**
+     * @return every block state of every frame block
+     */
+    private static List<BlockState> getFrameStates() {
+        final List<Block> frames = new ArrayList<>();
+        frames.add(NTRegistry.DOOR_FRAME.get());
+        for (RegistryObject<Block> frame : TentPlacer.BLOCK_TO_FRAME.values()) {
+            frames.add(frame.get());
+        }
+        final List<BlockState> states = new ArrayList<>();
+        for (Block frame : frames) {
+            states.addAll(frame.getStateDefinition().getPossibleStates());
+        }
+        return states;
+    }
+
+    /**
+     * @return every block state of every tent door block
+     */
+    private static List<BlockState> getDoorStates() {
+        final List<BlockState> states = new ArrayList<>();
+        for (Map<TentType, Supplier<Block>> doors : TentPlacer.DOORS.values()) {
+            for (Supplier<Block> door : doors.values()) {
+                states.addAll(door.get().getStateDefinition().getPossibleStates());
+            }
+        }
+        return states;
+    }
+
+    /**
+     * @param state a frame block state
+     * @return the bounds of the expected shape
+     */
+    private static AABB getExpectedFrameShape(final BlockState state) {
+        int progress = state.getValue(FrameBlock.PROGRESS);
+        VoxelShape expected = progress <= 1 ? FrameBlock.AABB_PROGRESS_0
+                : (progress <= 3 ? FrameBlock.AABB_PROGRESS_1 : FrameBlock.AABB_PROGRESS_2);
+        return expected.bounds();
+    }
+
+    /**
+     * @param state a tent door block state
+     * @return the bounds of the expected shape
+     */
+    private static AABB getExpectedDoorShape(final BlockState state) {
+        return state.getValue(TentDoorBlock.AXIS) == Direction.Axis.X
+                ? new AABB(6 / 16.0D, 0, 0, 10 / 16.0D, 1, 1)
+                : new AABB(0, 0, 6 / 16.0D, 1, 1, 10 / 16.0D);
+    }
+
+    /**
+     * @param helper   the game test helper
+     * @param state    the block state
+     * @param expected the bounds of the expected shape
+     */
+    private static void assertShape(final GameTestHelper helper, final BlockState state, final AABB expected) {
+        VoxelShape shape = state.getShape(helper.getLevel(), BlockPos.ZERO, CollisionContext.empty());
+        helper.assertTrue(!shape.isEmpty() && expected.equals(shape.bounds()), "Unexpected shape " + shape + " for " + state);
+    }
+}
@@ -0,0 +1,86 @@
+package nomadictents.gametest;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraftforge.gametest.GameTestHolder;
+import net.minecraftforge.gametest.PrefixGameTestTemplate;
+import nomadictents.NomadicTents;
+import nomadictents.block.FrameBlock;
+import nomadictents.structure.TentPlacer;
+import nomadictents.tileentity.TentDoorBlockEntity;
+import nomadictents.util.Tent;
+import nomadictents.util.TentSize;
+import nomadictents.util.TentType;
+
+@GameTestHolder(NomadicTents.MODID)
+@PrefixGameTestTemplate(false)
+public final class TentDoorTests {
+
+    private static final BlockPos DOOR = new BlockPos(8, 1, 8);
+
+    private TentDoorTests() {
+    }
+
+    @GameTest(template = NTGameTests.EMPTY)
+    public static void monstersNearbyOnFirstCheck(final GameTestHelper helper) {
+        TentDoorBlockEntity door = placeDoor(helper);
+        helper.spawnWithNoFreeWill(EntityType.ZOMBIE, DOOR.east(2));
+        Player player = helper.makeMockPlayer();
+        helper.assertTrue(door.monstersNearby(player), "Expected a monster to be found the first time the door checks");
+        helper.succeed();
+    }
+
+    @GameTest(template = NTGameTests.EMPTY)
+    public static void noMonstersNearby(final GameTestHelper helper) {
+        TentDoorBlockEntity door = placeDoor(helper);
+        Player player = helper.makeMockPlayer();
+        helper.assertFalse(door.monstersNearby(player), "Expected no monsters near the door");
+        helper.succeed();
+    }
+
+    @GameTest(template = NTGameTests.EMPTY)
+    public static void completenessForgottenWhenTentChanges(final GameTestHelper helper) {
+        final ServerLevel level = helper.getLevel();
+        final BlockPos door = helper.absolutePos(DOOR);
+        final TentPlacer tentPlacer = TentPlacer.getInstance();
+        final Tent tent = new Tent(0, TentType.YURT, TentSize.TINY);
+        helper.assertTrue(tentPlacer.placeTentFrameWithDoor(level, door, tent, Direction.EAST, null), "Failed to place tent frame");
+        TentDoorBlockEntity tentDoor = helper.getBlockEntity(DOOR);
+        helper.assertFalse(tentDoor.isComplete(), "Expected a tent frame to be incomplete");
+        // finish every frame
+        final TentSize size = TentPlacer.getOverworldSize(TentSize.TINY);
+        final BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        BlockPos wall = null;
+        for (long offset : tentPlacer.getTentBlockOffsets(level, TentType.YURT, size, TentPlacer.toRotation(Direction.EAST))) {
+            pos.setWithOffset(door, BlockPos.getX(offset), BlockPos.getY(offset), BlockPos.getZ(offset));
+            BlockState state = level.getBlockState(pos);
+            if (state.getBlock() instanceof FrameBlock) {
+                level.setBlock(pos, TentPlacer.getFrameTarget(state, level, pos), Block.UPDATE_ALL);
+                wall = pos.immutable();
+            }
+        }
+        helper.assertTrue(wall != null, "Expected the tent frame to have frame blocks");
+        helper.assertTrue(tentDoor.isComplete(), "Expected the tent to be complete once every frame is finished");
+        // break one wall
+        level.setBlock(wall, Blocks.AIR.defaultBlockState(), Block.UPDATE_ALL);
+        helper.assertFalse(tentDoor.isComplete(), "Expected the tent to be incomplete after a wall is removed");
+        helper.succeed();
+    }
+
+    /**
+     * @param helper the game test helper
+     * @return the block entity of a tiny yurt door placed at {@link #DOOR}
+     */
+    private static TentDoorBlockEntity placeDoor(final GameTestHelper helper) {
+        helper.setBlock(DOOR, TentPlacer.getDoor(TentType.YURT, TentSize.TINY, Direction.EAST));
+        return helper.getBlockEntity(DOOR);
+    }
+}
@@ -0,0 +1,65 @@
+package nomadictents.gametest;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.world.item.DyeColor;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.levelgen.structure.templatesystem.StructurePlaceSettings;
+import net.minecraft.world.level.levelgen.structure.templatesystem.StructureTemplate;
+import net.minecraftforge.gametest.GameTestHolder;
+import net.minecraftforge.gametest.PrefixGameTestTemplate;
+import nomadictents.NTRegistry;
+import nomadictents.NomadicTents;
+import nomadictents.block.ShamiyanaWallBlock;
+import nomadictents.block.YurtWallBlock;
+import nomadictents.structure.TentInteriorProcessor;
+import nomadictents.structure.TentPlacer;
+
+import javax.annotation.Nullable;
+
+@GameTestHolder(NomadicTents.MODID)
+@PrefixGameTestTemplate(false)
+public final class TentInteriorProcessorTests {
+
+    private TentInteriorProcessorTests() {
+    }
+
+    @GameTest(template = NTGameTests.EMPTY)
+    public static void processorTable(final GameTestHelper helper) {
+        final TentInteriorProcessor processor = new TentInteriorProcessor(DyeColor.RED);
+        // structure blocks and air are skipped
+        helper.assertTrue(null == process(helper, processor, Blocks.AIR.defaultBlockState()), "Expected air to be skipped");
+        helper.assertTrue(null == process(helper, processor, Blocks.STRUCTURE_BLOCK.defaultBlockState()), "Expected structure blocks to be skipped");
+        // tent blocks are placed on the inside
+        BlockState yurtWall = process(helper, processor, NTRegistry.YURT_WALL.get().defaultBlockState().setValue(YurtWallBlock.OUTSIDE, true));
+        helper.assertTrue(yurtWall != null && yurtWall.is(NTRegistry.YURT_WALL.get()) && !yurtWall.getValue(YurtWallBlock.OUTSIDE),
+                "Expected yurt walls to be placed on the inside");
+        // white shamiyana walls are colored and keep their pattern
+        for (boolean pattern : new boolean[]{false, true}) {
+            BlockState shamiyana = process(helper, processor, NTRegistry.WHITE_SHAMIYANA_WALL.get().defaultBlockState()
+                    .setValue(ShamiyanaWallBlock.PATTERN, pattern));
+            helper.assertTrue(shamiyana != null && shamiyana.is(TentPlacer.SHAMIYANA_WALLS.get(DyeColor.RED).get())
+                    && shamiyana.getValue(ShamiyanaWallBlock.PATTERN) == pattern, "Expected white shamiyana walls to be colored");
+        }
+        // other blocks are unchanged
+        BlockState stone = Blocks.STONE.defaultBlockState();
+        helper.assertTrue(process(helper, processor, stone) == stone, "Expected other blocks to be unchanged");
+        helper.succeed();
+    }
+
+    /**
+     * @param helper    the game test helper
+     * @param processor the processor
+     * @param state     the template block state
+     * @return the processed block state, or null if the block is skipped
+     */
+    @Nullable
+    private static BlockState process(final GameTestHelper helper, final TentInteriorProcessor processor, final BlockState state) {
+        final BlockPos pos = helper.absolutePos(BlockPos.ZERO);
+        final StructureTemplate.StructureBlockInfo info = new StructureTemplate.StructureBlockInfo(pos, state, null);
+        final StructureTemplate.StructureBlockInfo result = processor.process(helper.getLevel(), pos, pos, info, info, new StructurePlaceSettings(), null);
+        return result != null ? result.state() : null;
+    }
+}
@@ -0,0 +1,77 @@
+package nomadictents.gametest;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.phys.Vec3;
+import net.minecraftforge.gametest.GameTestHolder;
+import net.minecraftforge.gametest.PrefixGameTestTemplate;
+import nomadictents.NomadicTents;
+import nomadictents.block.TentDoorBlock;
+import nomadictents.structure.TentPlacer;
+import nomadictents.tileentity.TentDoorBlockEntity;
+import nomadictents.util.Tent;
+import nomadictents.util.TentSize;
+import nomadictents.util.TentType;
+
+@GameTestHolder(NomadicTents.MODID)
+@PrefixGameTestTemplate(false)
+public final class TentUpgradeTests {
+
+    private static final BlockPos NEW_DOOR = new BlockPos(2, 2, 8);
+    private static final BlockPos UPGRADED_DOOR = new BlockPos(2, 2, 22);
+
+    private TentUpgradeTests() {
+    }
+
+    @GameTest(template = NTGameTests.EMPTY)
+    public static void upgradeMatchesNewTent(final GameTestHelper helper) {
+        final ServerLevel level = helper.getLevel();
+        final BlockPos newDoor = helper.absolutePos(NEW_DOOR);
+        final BlockPos upgradedDoor = helper.absolutePos(UPGRADED_DOOR);
+        // build a small tent, and a tiny tent that is then upgraded to small
+        build(level, newDoor, new Tent(0, TentType.YURT, TentSize.SMALL));
+        build(level, upgradedDoor, new Tent(1, TentType.YURT, TentSize.TINY));
+        build(level, upgradedDoor, new Tent(1, TentType.YURT, TentSize.SMALL));
+        // compare the tent blocks around each door
+        final BlockPos.MutableBlockPos expectedPos = new BlockPos.MutableBlockPos();
+        final BlockPos.MutableBlockPos actualPos = new BlockPos.MutableBlockPos();
+        for (int x = -1; x <= 8; x++) {
+            for (int y = -1; y <= 7; y++) {
+                for (int z = -5; z <= 5; z++) {
+                    BlockState expected = level.getBlockState(expectedPos.setWithOffset(newDoor, x, y, z));
+                    BlockState actual = level.getBlockState(actualPos.setWithOffset(upgradedDoor, x, y, z));
+                    if ((isTentBlock(expected) || isTentBlock(actual)) && expected != actual) {
+                        helper.fail("Expected " + expected + " but found " + actual + " at offset " + x + ", " + y + ", " + z + " from the upgraded door");
+                    }
+                }
+            }
+        }
+        TentDoorBlockEntity tentDoor = helper.getBlockEntity(UPGRADED_DOOR);
+        helper.assertTrue(tentDoor.getTent().getSize() == TentSize.SMALL, "Expected the door to store the upgraded tent");
+        helper.succeed();
+    }
+
+    /**
+     * Builds or upgrades a tent in one go
+     *
+     * @param level the tent level
+     * @param door  the door position
+     * @param tent  the tent to build
+     */
+    private static void build(final ServerLevel level, final BlockPos door, final Tent tent) {
+        TentPlacer.getInstance().createBuildJob(level, door, tent, level, Vec3.atBottomCenterOf(door), 0.0F, Integer.MAX_VALUE)
+                .run(Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param state a block state
+     * @return true if the state is part of a tent template
+     */
+    private static boolean isTentBlock(final BlockState state) {
+        return state.is(TentPlacer.TENT_WALL_TAG) || state.is(Blocks.BARRIER) || state.getBlock() instanceof TentDoorBlock;
+    }
+}
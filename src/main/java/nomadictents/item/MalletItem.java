@@ -1,5 +1,10 @@
 package nomadictents.item;
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
 import net.minecraft.ChatFormatting;
 import net.minecraft.core.BlockPos;
 import net.minecraft.network.chat.Component;
@@ -14,14 +19,22 @@ import net.minecraft.world.item.enchantment.Enchantment;
 import net.minecraft.world.item.enchantment.Enchantments;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
 import nomadictents.NTRegistry;
 import nomadictents.NomadicTents;
+import nomadictents.block.DoubleTentBlock;
 import nomadictents.block.FrameBlock;
 import nomadictents.block.TentBlock;
+import nomadictents.structure.TentConstructionTracker;
 import nomadictents.structure.TentPlacer;
+import nomadictents.tileentity.TentDoorBlockEntity;
+import nomadictents.util.TentSize;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.function.Predicate;
 
@@ -31,6 +44,11 @@ public class MalletItem extends Item {
 
     private static final Predicate<Block> TENT_BLOCK = (b -> b instanceof TentBlock);
 
+    /**
+     * The distance to search for connected frames when the tent size is not known
+     */
+    private static final int SEARCH_RADIUS = 16;
+
     public MalletItem(Tier material, boolean isInstant, Item.Properties properties) {
         super(properties.durability(material.getUses()));
         this.isInstant = isInstant;
@@ -53,7 +71,7 @@ public class MalletItem extends Item {
             // instant
             if (isInstant) {
                 // locate door, if any, to pass to #useInstant
-                BlockPos doorPos = FrameBlock.locateDoor(context.getLevel(), context.getClickedPos(), TENT_BLOCK);
+                BlockPos doorPos = TentConstructionTracker.locateDoor(context.getLevel(), context.getClickedPos(), TENT_BLOCK);
                 useInstant(context, state, context.getClickedPos(), doorPos);
                 return InteractionResult.SUCCESS;
             }
@@ -69,13 +87,16 @@ public class MalletItem extends Item {
                 // determine target block
                 BlockState target = TentPlacer.getFrameTarget(state, context.getLevel(), context.getClickedPos());
                 // locate door, if any
-                BlockPos doorPos = FrameBlock.locateDoor(context.getLevel(), context.getClickedPos(), TENT_BLOCK);
+                BlockPos doorPos = TentConstructionTracker.locateDoor(context.getLevel(), context.getClickedPos(), TENT_BLOCK);
                 // use door position to further determine target state
                 if (target.getBlock() instanceof TentBlock) {
                     target = ((TentBlock) target.getBlock()).getDoorAwareState(context.getLevel(), target, context.getClickedPos(), doorPos);
                 }
                 // place target block
                 context.getLevel().setBlock(context.getClickedPos(), target, Block.UPDATE_ALL);
+                if (!context.getLevel().isClientSide) {
+                    TentConstructionTracker.onFrameDone(context.getLevel(), context.getClickedPos());
+                }
             } else {
                 // increase progress
                 context.getLevel().setBlock(context.getClickedPos(), state.setValue(FrameBlock.PROGRESS, next), Block.UPDATE_ALL);
@@ -96,32 +117,114 @@ public class MalletItem extends Item {
         return NomadicTents.CONFIG.MALLET_EFFECTIVENESS.get() + efficiency * 2;
     }
 
+    /**
+     * Converts the given frame and every frame connected to it (including diagonals) into tent blocks.
+     * Connected frames are found with an iterative flood fill that reads each position once, then every frame
+     * is placed in one pass with double and quarter tent blocks resolved from the frames being converted,
+     * and durability is used once.
+     *
+     * @param context the item use context
+     * @param state   the frame that was clicked
+     * @param pos     the position of the frame that was clicked
+     * @param doorPos the door of the tent, if any
+     */
     private void useInstant(UseOnContext context, final BlockState state, final BlockPos pos, @Nullable final BlockPos doorPos) {
         final Level level = context.getLevel();
-        // determine target block
-        BlockState target = TentPlacer.getFrameTarget(state, level, pos);
-        // use door position to further determine target state
-        if (target.getBlock() instanceof TentBlock) {
-            target = ((TentBlock) target.getBlock()).getDoorAwareState(level, target, pos, doorPos);
+        // limit the search to the tent, if any, or to the largest tent size
+        BoundingBox bounds = null;
+        BlockEntity blockEntity = doorPos != null ? level.getBlockEntity(doorPos) : null;
+        if (blockEntity instanceof TentDoorBlockEntity) {
+            TentDoorBlockEntity tentDoor = (TentDoorBlockEntity) blockEntity;
+            TentSize size = TentPlacer.getOverworldSize(tentDoor.getTent().getSize());
+            bounds = TentPlacer.getInstance().getTentBoundingBox(level, doorPos, tentDoor.getTent().getType(), size, tentDoor.getDirection());
         }
-        // place target block
-        level.setBlock(pos, target, Block.UPDATE_ALL);
-        // use durability
-        if (null != context.getPlayer()) {
-            context.getItemInHand().hurtAndBreak(1, context.getPlayer(), p -> p.broadcastBreakEvent(context.getHand()));
+        if (null == bounds || !bounds.isInside(pos)) {
+            bounds = new BoundingBox(pos).inflatedBy(SEARCH_RADIUS);
+        } else {
+            bounds = bounds.inflatedBy(1);
         }
-        // scan nearby area (including diagonals) and call this method for each frame found
-        for (int i = -1; i < 2; i++) {
-            for (int j = -1; j < 2; j++) {
-                for (int k = -1; k < 2; k++) {
-                    BlockPos curPos = pos.offset(i, j, k);
-                    BlockState current = level.getBlockState(curPos);
-                    if (current.getBlock() instanceof FrameBlock) {
-                        useInstant(context, current, curPos, doorPos);
+        // find connected frames, marking each position when it is first read
+        final int xSpan = bounds.getXSpan();
+        final int ySpan = bounds.getYSpan();
+        final int zSpan = bounds.getZSpan();
+        final BitSet visited = new BitSet(xSpan * ySpan * zSpan);
+        final LongArrayFIFOQueue queue = new LongArrayFIFOQueue();
+        final LongList frames = new LongArrayList();
+        final List<BlockState> frameStates = new ArrayList<>();
+        final BlockPos.MutableBlockPos checkPos = new BlockPos.MutableBlockPos();
+        visited.set(((pos.getX() - bounds.minX()) * ySpan + (pos.getY() - bounds.minY())) * zSpan + (pos.getZ() - bounds.minZ()));
+        queue.enqueue(pos.asLong());
+        frames.add(pos.asLong());
+        frameStates.add(state);
+        while (!queue.isEmpty()) {
+            long current = queue.dequeueLong();
+            int cx = BlockPos.getX(current);
+            int cy = BlockPos.getY(current);
+            int cz = BlockPos.getZ(current);
+            // scan nearby area (including diagonals)
+            for (int i = -1; i < 2; i++) {
+                for (int j = -1; j < 2; j++) {
+                    for (int k = -1; k < 2; k++) {
+                        checkPos.set(cx + i, cy + j, cz + k);
+                        if (!bounds.isInside(checkPos)) {
+                            continue;
+                        }
+                        int index = ((checkPos.getX() - bounds.minX()) * ySpan + (checkPos.getY() - bounds.minY())) * zSpan + (checkPos.getZ() - bounds.minZ());
+                        if (visited.get(index)) {
+                            continue;
+                        }
+                        visited.set(index);
+                        BlockState neighbor = level.getBlockState(checkPos);
+                        if (neighbor.getBlock() instanceof FrameBlock) {
+                            queue.enqueue(checkPos.asLong());
+                            frames.add(checkPos.asLong());
+                            frameStates.add(neighbor);
+                        }
                     }
                 }
             }
         }
+        // determine target blocks
+        final Long2ObjectMap<BlockState> targets = new Long2ObjectOpenHashMap<>(frames.size());
+        for (int i = 0, n = frames.size(); i < n; i++) {
+            checkPos.set(frames.getLong(i));
+            BlockState target = TentPlacer.getFrameTarget(frameStates.get(i), level, checkPos);
+            // use door position to further determine target state
+            if (target.getBlock() instanceof TentBlock) {
+                target = ((TentBlock) target.getBlock()).getDoorAwareState(level, target, checkPos, doorPos);
+            }
+            targets.put(frames.getLong(i), target);
+        }
+        // resolve double and quarter tent blocks from the blocks that are about to be placed
+        for (Long2ObjectMap.Entry<BlockState> entry : targets.long2ObjectEntrySet()) {
+            BlockState target = entry.getValue();
+            if (target.getBlock() instanceof DoubleTentBlock) {
+                final Block block = target.getBlock();
+                entry.setValue(((DoubleTentBlock) block).getTentBlock(target, BlockPos.of(entry.getLongKey()), p -> {
+                    BlockState other = targets.get(p.asLong());
+                    return (other != null ? other : level.getBlockState(p)).getBlock() == block;
+                }));
+            }
+        }
+        // place target blocks without shape updates, so that blocks placed earlier do not change while the rest are missing
+        final BlockPos[] placed = new BlockPos[frames.size()];
+        for (int i = 0, n = frames.size(); i < n; i++) {
+            placed[i] = BlockPos.of(frames.getLong(i));
+            level.setBlock(placed[i], targets.get(frames.getLong(i)), Block.UPDATE_CLIENTS | Block.UPDATE_KNOWN_SHAPE);
+            if (!level.isClientSide) {
+                TentConstructionTracker.onFrameDone(level, placed[i]);
+            }
+        }
+        // notify neighbors once every block is placed; tent blocks in the batch already have their final states
+        for (BlockPos p : placed) {
+            BlockState target = level.getBlockState(p);
+            level.blockUpdated(p, target.getBlock());
+            target.updateNeighbourShapes(level, p, Block.UPDATE_ALL);
+        }
+        // use one durability point for each converted frame, the same as when each frame was converted on its own
+        if (null != context.getPlayer()) {
+            context.getItemInHand().hurtAndBreak(frames.size(), context.getPlayer(), p -> p.broadcastBreakEvent(context.getHand()));
+        }
     }
 
 }
@@ -0,0 +1,163 @@
+package nomadictents.structure;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraft.world.level.lighting.LevelLightEngine;
+import net.minecraft.world.level.lighting.LightEngine;
+import nomadictents.NomadicTents;
+
+/**
+ * Writes many blocks straight into chunk sections without neighbor updates, shape updates,
+ * or a client packet per block. Heightmaps are kept up to date as blocks are written, and the
+ * replaced and placed blocks are told about the change as they would be by {@link LevelChunk#setBlockState}.
+ * Lighting is deferred until {@link #finish()}, which updates each changed section once,
+ * checks light only where the final block differs from the original one, and then saves each
+ * changed chunk. Changes are sent to nearby players as section updates, and the light changes
+ * are sent by the chunk holders once the light engine has run, so clients never see stale light.
+ * Blocks that have block entities are placed with {@link ServerLevel#setBlock} instead.
+ */
+public class BulkBlockWriter {
+
+    private static final Heightmap.Types[] HEIGHTMAPS = {
+            Heightmap.Types.MOTION_BLOCKING, Heightmap.Types.MOTION_BLOCKING_NO_LEAVES,
+            Heightmap.Types.OCEAN_FLOOR, Heightmap.Types.WORLD_SURFACE
+    };
+
+    private final ServerLevel level;
+    /**
+     * Map where keys = {Chunk position} and value = {Chunk that was changed}
+     */
+    private final Long2ObjectMap<LevelChunk> changedChunks = new Long2ObjectLinkedOpenHashMap<>();
+    /**
+     * Map where keys = {Block position} and value = {Block state before it was first written}
+     */
+    private final Long2ObjectMap<BlockState> originalStates = new Long2ObjectLinkedOpenHashMap<>();
+    /**
+     * Sections that were changed, packed with {@link SectionPos#asLong()}
+     */
+    private final LongSet changedSections = new LongOpenHashSet();
+    private LevelChunk lastChunk;
+    private int changedBlocks;
+
+    public BulkBlockWriter(final ServerLevel level) {
+        this.level = level;
+    }
+
+    /**
+     * Writes a block into its chunk section
+     *
+     * @param pos   the block position
+     * @param state the block state
+     */
+    public void setBlock(final BlockPos pos, final BlockState state) {
+        final int x = pos.getX();
+        final int y = pos.getY();
+        final int z = pos.getZ();
+        LevelChunk chunk = getChunk(x >> 4, z >> 4);
+        LevelChunkSection section = chunk.getSection(chunk.getSectionIndex(y));
+        BlockState oldState = section.getBlockState(x & 15, y & 15, z & 15);
+        if (oldState == state) {
+            return;
+        }
+        // block entities need the regular placement logic
+        if (oldState.hasBlockEntity() || state.hasBlockEntity()) {
+            level.setBlock(pos, state, Block.UPDATE_ALL);
+            return;
+        }
+        section.setBlockState(x & 15, y & 15, z & 15, state, true);
+        // update heightmaps
+        for (Heightmap.Types type : HEIGHTMAPS) {
+            chunk.getOrCreateHeightmapUnprimed(type).update(x & 15, y, z & 15, state);
+        }
+        // let the old and new blocks react to the change
+        final BlockPos immutablePos = pos.immutable();
+        oldState.onRemove(level, immutablePos, state, false);
+        state.onPlace(level, immutablePos, oldState, false);
+        // remember the original state so lighting can be checked once at the end
+        originalStates.putIfAbsent(pos.asLong(), oldState);
+        changedSections.add(SectionPos.asLong(x >> 4, y >> 4, z >> 4));
+        changedChunks.put(chunk.getPos().toLong(), chunk);
+        changedBlocks++;
+    }
+
+    /**
+     * Writes the same block into a vertical column
+     *
+     * @param pos   the top of the column
+     * @param depth the number of blocks in the column
+     * @param state the block state
+     */
+    public void fillColumn(final BlockPos pos, final int depth, final BlockState state) {
+        BlockPos.MutableBlockPos p = pos.mutable();
+        for (int i = 0; i < depth; i++) {
+            setBlock(p, state);
+            p.move(0, -1, 0);
+        }
+    }
+
+    /**
+     * @return the number of blocks written directly to chunk sections
+     */
+    public int getChangedBlocks() {
+        return changedBlocks;
+    }
+
+    /**
+     * Updates lighting, marks each changed chunk to be saved, and sends the changes to the players who can see them
+     */
+    public void finish() {
+        LevelLightEngine lightEngine = level.getChunkSource().getLightEngine();
+        // update each changed section once
+        LongIterator sections = changedSections.iterator();
+        while (sections.hasNext()) {
+            SectionPos sectionPos = SectionPos.of(sections.nextLong());
+            LevelChunk chunk = getChunk(sectionPos.x(), sectionPos.z());
+            LevelChunkSection section = chunk.getSection(chunk.getSectionIndexFromSectionY(sectionPos.y()));
+            lightEngine.updateSectionStatus(sectionPos, section.hasOnlyAir());
+        }
+        // check light where the final block has different light properties than the original block
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        for (Long2ObjectMap.Entry<BlockState> entry : originalStates.long2ObjectEntrySet()) {
+            pos.set(entry.getLongKey());
+            LevelChunk chunk = getChunk(pos.getX() >> 4, pos.getZ() >> 4);
+            if (LightEngine.hasDifferentLightProperties(chunk, pos, entry.getValue(), chunk.getBlockState(pos))) {
+                lightEngine.checkBlock(pos.immutable());
+            }
+        }
+        // send the changes the same way ServerLevel#setBlock does. The chunk holder collects the changed positions
+        // of each section and sends them once per tick, as one section update packet per section.
+        // whole chunk packets are not used because they would be built before the light engine has run.
+        for (long packed : originalStates.keySet()) {
+            pos.set(packed);
+            level.getChunkSource().blockChanged(pos);
+        }
+        // save each changed chunk
+        for (LevelChunk chunk : changedChunks.values()) {
+            chunk.setUnsaved(true);
+        }
+        NomadicTents.LOGGER.debug("Wrote " + originalStates.size() + " blocks in " + changedSections.size() + " sections of '"
+                + level.dimension().location() + "'");
+        changedChunks.clear();
+        changedSections.clear();
+        originalStates.clear();
+        lastChunk = null;
+    }
+
+    private LevelChunk getChunk(final int chunkX, final int chunkZ) {
+        if (lastChunk == null || lastChunk.getPos().x != chunkX || lastChunk.getPos().z != chunkZ) {
+            lastChunk = level.getChunk(chunkX, chunkZ);
+        }
+        return lastChunk;
+    }
+}
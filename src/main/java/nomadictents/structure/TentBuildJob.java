@@ -0,0 +1,120 @@
+package nomadictents.structure;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+import nomadictents.util.Tent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A tent build that is split into steps, so that it can be resumed over several ticks.
+ * Each step records roughly how many blocks it changes, which is charged against the build budget.
+ */
+public class TentBuildJob {
+
+    private final ResourceKey<Level> level;
+    private final BlockPos door;
+    private final Tent tent;
+    private final List<Step> steps = new ArrayList<>();
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+    private int nextStep;
+
+    public TentBuildJob(final ResourceKey<Level> level, final BlockPos door, final Tent tent) {
+        this.level = level;
+        this.door = door.immutable();
+        this.tent = tent;
+    }
+
+    /**
+     * Adds a step to the end of the job
+     *
+     * @param cost   the approximate number of blocks changed by the step
+     * @param action the step
+     */
+    public void addStep(final int cost, final Runnable action) {
+        this.steps.add(new Step(Math.max(1, cost), action));
+    }
+
+    /**
+     * Runs steps until the budget is used up or the job is done. At least one step is always run,
+     * so a step that costs more than the budget can not stall the job.
+     *
+     * @param budget the number of blocks that may be changed
+     * @return the number of blocks that were changed
+     */
+    public int run(final int budget) {
+        int used = 0;
+        while (nextStep < steps.size()) {
+            Step step = steps.get(nextStep);
+            if (used > 0 && used + step.cost > budget) {
+                break;
+            }
+            nextStep++;
+            step.action.run();
+            used += step.cost;
+        }
+        if (isDone()) {
+            future.complete(null);
+        }
+        return used;
+    }
+
+    /**
+     * @return true if every step has run
+     */
+    public boolean isDone() {
+        return nextStep >= steps.size();
+    }
+
+    /**
+     * @return a future that completes on the server thread once every step has run
+     */
+    public CompletableFuture<Void> getFuture() {
+        return future;
+    }
+
+    public ResourceKey<Level> getLevel() {
+        return level;
+    }
+
+    public BlockPos getDoor() {
+        return door;
+    }
+
+    public Tent getTent() {
+        return tent;
+    }
+
+    /**
+     * @param level a tent level
+     * @param door  a door position
+     * @param tent  a tent
+     * @return true if this job builds the given tent at the given door
+     */
+    public boolean builds(final ResourceKey<Level> level, final BlockPos door, final Tent tent) {
+        return this.level == level && this.door.equals(door) && isSameTent(this.tent, tent);
+    }
+
+    /**
+     * @param a a tent
+     * @param b a tent
+     * @return true if both tents have the same ID, type, size, layers, and color
+     */
+    public static boolean isSameTent(final Tent a, final Tent b) {
+        return a.getId() == b.getId() && a.getType() == b.getType() && a.getSize() == b.getSize()
+                && a.getLayers() == b.getLayers() && a.getColor() == b.getColor();
+    }
+
+    private static final class Step {
+        private final int cost;
+        private final Runnable action;
+
+        private Step(final int cost, final Runnable action) {
+            this.cost = cost;
+            this.action = action;
+        }
+    }
+}
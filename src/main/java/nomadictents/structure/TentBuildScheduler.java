@@ -0,0 +1,178 @@
+package nomadictents.structure;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.level.Level;
+import nomadictents.NomadicTents;
+import nomadictents.util.Tent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Runs {@link TentBuildJob}s a few blocks at a time. All jobs share one budget of blocks per tick,
+ * taking turns so that one large tent does not hold back the others. Only one job runs for each door;
+ * a job for a door that is already being built waits until the earlier job is done, and is only
+ * created then, so that it is planned from the blocks the earlier job left behind.
+ */
+public final class TentBuildScheduler {
+
+    private static final List<TentBuildJob> JOBS = new ArrayList<>();
+    /**
+     * Jobs that wait for an earlier job at the same door, in the order they were scheduled
+     */
+    private static final List<QueuedJob> QUEUED = new ArrayList<>();
+    /**
+     * The number of blocks already changed this tick
+     */
+    private static int usedThisTick;
+    /**
+     * The index of the job that goes first next tick
+     */
+    private static int nextJob;
+
+    private TentBuildScheduler() {
+    }
+
+    /**
+     * Starts a build job. As much of the job as fits in the remaining budget for this tick is run right away,
+     * so small builds finish immediately. If the same tent is already being built at the door, the existing job is
+     * used instead. If a different tent is being built at the door, the job is created once that build is done.
+     *
+     * @param level   the tent level
+     * @param door    the door position
+     * @param tent    the tent to build
+     * @param factory creates the build job
+     * @return a future that completes on the server thread when the job is done
+     */
+    public static CompletableFuture<Void> schedule(final ResourceKey<Level> level, final BlockPos door, final Tent tent,
+                                                   final Supplier<TentBuildJob> factory) {
+        // the last job for this door decides whether the tent is already being built
+        QueuedJob lastQueued = null;
+        for (QueuedJob queued : QUEUED) {
+            if (queued.level == level && queued.door.equals(door)) {
+                lastQueued = queued;
+            }
+        }
+        if (lastQueued != null) {
+            if (TentBuildJob.isSameTent(lastQueued.tent, tent)) {
+                return lastQueued.future;
+            }
+            return enqueue(level, door, tent, factory);
+        }
+        for (TentBuildJob other : JOBS) {
+            if (other.getLevel() == level && other.getDoor().equals(door)) {
+                if (other.builds(level, door, tent)) {
+                    return other.getFuture();
+                }
+                return enqueue(level, door, tent, factory);
+            }
+        }
+        return start(factory.get());
+    }
+
+    /**
+     * Called at the end of every server tick to continue the build jobs
+     *
+     * @param server the minecraft server
+     */
+    public static void tick(final MinecraftServer server) {
+        final int budget = NomadicTents.CONFIG.BUILD_BLOCKS_PER_TICK.get();
+        int remaining = budget <= 0 ? Integer.MAX_VALUE : budget - usedThisTick;
+        usedThisTick = 0;
+        if (JOBS.isEmpty() && QUEUED.isEmpty()) {
+            return;
+        }
+        // take turns starting with a different job each tick
+        final int start = JOBS.isEmpty() ? 0 : nextJob % JOBS.size();
+        for (int i = 0, n = JOBS.size(); i < n && remaining > 0; i++) {
+            TentBuildJob job = JOBS.get((start + i) % n);
+            remaining -= job.run(remaining);
+        }
+        JOBS.removeIf(TentBuildJob::isDone);
+        nextJob = start + 1;
+        // start waiting jobs whose door is free
+        for (int i = 0; i < QUEUED.size(); i++) {
+            QueuedJob queued = QUEUED.get(i);
+            if (!isBuilding(queued.level, queued.door)) {
+                QUEUED.remove(i--);
+                final CompletableFuture<Void> future = queued.future;
+                TentBuildJob job = queued.factory.get();
+                job.getFuture().thenRun(() -> future.complete(null));
+                JOBS.add(job);
+            }
+        }
+    }
+
+    /**
+     * Called when the server stops to forget all build jobs
+     */
+    public static void clear() {
+        JOBS.clear();
+        QUEUED.clear();
+        usedThisTick = 0;
+        nextJob = 0;
+    }
+
+    /**
+     * @param job the build job
+     * @return a future that completes on the server thread when the job is done
+     */
+    private static CompletableFuture<Void> start(final TentBuildJob job) {
+        final int budget = NomadicTents.CONFIG.BUILD_BLOCKS_PER_TICK.get();
+        if (budget <= 0) {
+            // build everything now
+            job.run(Integer.MAX_VALUE);
+            return job.getFuture();
+        }
+        if (usedThisTick < budget) {
+            usedThisTick += job.run(budget - usedThisTick);
+        }
+        if (!job.isDone()) {
+            JOBS.add(job);
+        }
+        return job.getFuture();
+    }
+
+    private static CompletableFuture<Void> enqueue(final ResourceKey<Level> level, final BlockPos door, final Tent tent,
+                                                   final Supplier<TentBuildJob> factory) {
+        QueuedJob queued = new QueuedJob(level, door.immutable(), tent, factory);
+        QUEUED.add(queued);
+        return queued.future;
+    }
+
+    /**
+     * @param level a tent level
+     * @param door  a door position
+     * @return true if a job is running for the door
+     */
+    private static boolean isBuilding(final ResourceKey<Level> level, final BlockPos door) {
+        for (TentBuildJob job : JOBS) {
+            if (job.getLevel() == level && job.getDoor().equals(door)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A build job that waits for an earlier job at the same door
+     */
+    private static final class QueuedJob {
+        private final ResourceKey<Level> level;
+        private final BlockPos door;
+        private final Tent tent;
+        private final Supplier<TentBuildJob> factory;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private QueuedJob(final ResourceKey<Level> level, final BlockPos door, final Tent tent, final Supplier<TentBuildJob> factory) {
+            this.level = level;
+            this.door = door;
+            this.tent = tent;
+            this.factory = factory;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package nomadictents.structure;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import nomadictents.tileentity.TentDoorBlockEntity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of loaded tent doors by the chunks their tent covers. When a block changes inside a tent,
+ * the door is told to check its tent again the next time it is used, so the door can remember
+ * whether its tent is complete instead of checking every block each time an entity touches it.
+ */
+public final class TentCompletenessIndex {
+
+    /**
+     * Map where keys = {Level} and value = {Map where keys = {Chunk position} and value = {Doors whose tent is in the chunk}}
+     */
+    private static final Map<ResourceKey<Level>, Long2ObjectMap<List<TentDoorBlockEntity>>> DOORS = new HashMap<>();
+
+    private TentCompletenessIndex() {
+    }
+
+    /**
+     * Adds a door to the index
+     *
+     * @param level the level
+     * @param door  the tent door
+     * @param box   the bounding box of the tent
+     */
+    public static void add(final Level level, final TentDoorBlockEntity door, final BoundingBox box) {
+        Long2ObjectMap<List<TentDoorBlockEntity>> chunks = DOORS.computeIfAbsent(level.dimension(), k -> new Long2ObjectOpenHashMap<>());
+        for (int cx = box.minX() >> 4, mx = box.maxX() >> 4; cx <= mx; cx++) {
+            for (int cz = box.minZ() >> 4, mz = box.maxZ() >> 4; cz <= mz; cz++) {
+                chunks.computeIfAbsent(ChunkPos.asLong(cx, cz), k -> new ArrayList<>(1)).add(door);
+            }
+        }
+    }
+
+    /**
+     * Removes a door from the index
+     *
+     * @param level the level
+     * @param door  the tent door
+     * @param box   the bounding box that was used to add the door
+     */
+    public static void remove(final Level level, final TentDoorBlockEntity door, final BoundingBox box) {
+        Long2ObjectMap<List<TentDoorBlockEntity>> chunks = DOORS.get(level.dimension());
+        if (null == chunks) {
+            return;
+        }
+        for (int cx = box.minX() >> 4, mx = box.maxX() >> 4; cx <= mx; cx++) {
+            for (int cz = box.minZ() >> 4, mz = box.maxZ() >> 4; cz <= mz; cz++) {
+                long key = ChunkPos.asLong(cx, cz);
+                List<TentDoorBlockEntity> list = chunks.get(key);
+                if (list != null && list.remove(door) && list.isEmpty()) {
+                    chunks.remove(key);
+                }
+            }
+        }
+        if (chunks.isEmpty()) {
+            DOORS.remove(level.dimension());
+        }
+    }
+
+    /**
+     * Called when a block changes. Tells each door whose tent contains the position to check its tent again.
+     *
+     * @param level the level
+     * @param pos   the block position
+     */
+    public static void onBlockChanged(final Level level, final BlockPos pos) {
+        Long2ObjectMap<List<TentDoorBlockEntity>> chunks = DOORS.get(level.dimension());
+        if (null == chunks) {
+            return;
+        }
+        List<TentDoorBlockEntity> list = chunks.get(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4));
+        if (null == list) {
+            return;
+        }
+        for (TentDoorBlockEntity door : list) {
+            door.onTentBlockChanged(pos);
+        }
+    }
+
+    /**
+     * Called when a level is unloaded
+     *
+     * @param key the level
+     */
+    public static void onUnload(final ResourceKey<Level> key) {
+        DOORS.remove(key);
+    }
+
+    /**
+     * Called when the server stops
+     */
+    public static void clear() {
+        DOORS.clear();
+    }
+}
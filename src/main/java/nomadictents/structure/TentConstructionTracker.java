@@ -0,0 +1,243 @@
+package nomadictents.structure;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import nomadictents.block.FrameBlock;
+import nomadictents.block.TentDoorBlock;
+import nomadictents.tileentity.TentDoorBlockEntity;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Tracks tents whose frames are still being built. Each tent is recorded with its door, bounding box,
+ * and the positions of the frames left, and is indexed by the chunks it covers, so the door of a frame can be
+ * found without searching through neighboring blocks. Only the recorded frame positions belong to a tent,
+ * so blocks that are inside the bounding box but not part of the tent are never matched. Tents are added by {@link TentPlacer#placeTentFrameWithDoor}
+ * or the first time {@link FrameBlock#locateDoor} finds their door, and removed when the last frame is done.
+ */
+public final class TentConstructionTracker {
+
+    /**
+     * Map where keys = {Level} and value = {Map where keys = {Chunk position} and value = {Tents in the chunk}}
+     */
+    private static final Map<ResourceKey<Level>, Long2ObjectMap<List<Construction>>> CONSTRUCTIONS = new HashMap<>();
+
+    private TentConstructionTracker() {
+    }
+
+    /**
+     * Starts tracking a tent, replacing any tent that was tracked with the same door
+     *
+     * @param level  the level
+     * @param door   the door position
+     * @param box    the bounding box of the tent
+     * @param frames the positions of the frames in the tent, packed with {@link BlockPos#asLong()}
+     */
+    public static void add(final Level level, final BlockPos door, final BoundingBox box, final LongSet frames) {
+        remove(level, door);
+        if (frames.isEmpty()) {
+            return;
+        }
+        Construction construction = new Construction(door.immutable(), box, frames);
+        Long2ObjectMap<List<Construction>> chunks = CONSTRUCTIONS.computeIfAbsent(level.dimension(), k -> new Long2ObjectOpenHashMap<>());
+        for (int cx = box.minX() >> 4, mx = box.maxX() >> 4; cx <= mx; cx++) {
+            for (int cz = box.minZ() >> 4, mz = box.maxZ() >> 4; cz <= mz; cz++) {
+                chunks.computeIfAbsent(ChunkPos.asLong(cx, cz), k -> new ArrayList<>(1)).add(construction);
+            }
+        }
+    }
+
+    /**
+     * Stops tracking the tent with the given door
+     *
+     * @param level the level
+     * @param door  the door position
+     */
+    public static void remove(final Level level, final BlockPos door) {
+        Long2ObjectMap<List<Construction>> chunks = CONSTRUCTIONS.get(level.dimension());
+        if (null == chunks) {
+            return;
+        }
+        List<Construction> list = chunks.get(ChunkPos.asLong(door.getX() >> 4, door.getZ() >> 4));
+        if (null == list) {
+            return;
+        }
+        for (Construction construction : list) {
+            if (construction.door.equals(door)) {
+                remove(level, construction);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Finds the door of the tent that contains the given frame. Tracked tents are used when possible,
+     * otherwise the door is found with {@link FrameBlock#locateDoor} and its tent is tracked from then on.
+     *
+     * @param level         the level
+     * @param pos           the frame position
+     * @param tentBlockPred a predicate for tent blocks that can be followed to the door
+     * @return the position of the lower door block, or null if there is no door
+     */
+    @Nullable
+    public static BlockPos locateDoor(final Level level, final BlockPos pos, final Predicate<Block> tentBlockPred) {
+        if (level.isClientSide) {
+            return FrameBlock.locateDoor(level, pos, tentBlockPred);
+        }
+        // use the tracked tent if its door still exists
+        Construction construction = get(level, pos);
+        if (construction != null) {
+            if (level.getBlockState(construction.door).getBlock() instanceof TentDoorBlock) {
+                return construction.door;
+            }
+            remove(level, construction);
+        }
+        // search for the door and track its tent
+        BlockPos door = FrameBlock.locateDoor(level, pos, tentBlockPred);
+        if (door != null) {
+            track(level, door);
+        }
+        return door;
+    }
+
+    /**
+     * Called when a frame is finished. Stops tracking the tent once all of its frames are finished.
+     * Positions that are not a frame of a tracked tent are ignored.
+     *
+     * @param level the level
+     * @param pos   the frame position
+     */
+    public static void onFrameDone(final Level level, final BlockPos pos) {
+        Construction construction = get(level, pos);
+        if (construction != null) {
+            construction.frames.remove(pos.asLong());
+            if (construction.frames.isEmpty()) {
+                remove(level, construction);
+            }
+        }
+    }
+
+    /**
+     * Called when a level is unloaded
+     *
+     * @param key the level
+     */
+    public static void onUnload(final ResourceKey<Level> key) {
+        CONSTRUCTIONS.remove(key);
+    }
+
+    /**
+     * Called when the server stops
+     */
+    public static void clear() {
+        CONSTRUCTIONS.clear();
+    }
+
+    /**
+     * Tracks the tent of the given door using the tent information in the door block entity
+     *
+     * @param level the level
+     * @param door  the door position
+     */
+    public static void track(final Level level, final BlockPos door) {
+        BlockEntity blockEntity = level.getBlockEntity(door);
+        if (!(blockEntity instanceof TentDoorBlockEntity)) {
+            return;
+        }
+        TentDoorBlockEntity tentDoor = (TentDoorBlockEntity) blockEntity;
+        TentPlacer placer = TentPlacer.getInstance();
+        long[] offsets = placer.getTentBlockOffsets(level, tentDoor.getTent().getType(),
+                TentPlacer.getOverworldSize(tentDoor.getTent().getSize()), TentPlacer.toRotation(tentDoor.getDirection()));
+        if (offsets.length == 0) {
+            return;
+        }
+        // find the frames that are left
+        BlockPos.MutableBlockPos checkPos = new BlockPos.MutableBlockPos();
+        BoundingBox box = new BoundingBox(door);
+        LongSet frames = new LongOpenHashSet();
+        for (long offset : offsets) {
+            checkPos.setWithOffset(door, BlockPos.getX(offset), BlockPos.getY(offset), BlockPos.getZ(offset));
+            box.encapsulate(checkPos);
+            if (level.getBlockState(checkPos).getBlock() instanceof FrameBlock) {
+                frames.add(checkPos.asLong());
+            }
+        }
+        add(level, door, box, frames);
+    }
+
+    /**
+     * @param level the level
+     * @param pos   a frame position
+     * @return the tracked tent that has a frame at the position, if any
+     */
+    @Nullable
+    private static Construction get(final Level level, final BlockPos pos) {
+        Long2ObjectMap<List<Construction>> chunks = CONSTRUCTIONS.get(level.dimension());
+        if (null == chunks) {
+            return null;
+        }
+        List<Construction> list = chunks.get(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4));
+        if (null == list) {
+            return null;
+        }
+        final long packed = pos.asLong();
+        for (Construction construction : list) {
+            if (construction.frames.contains(packed)) {
+                return construction;
+            }
+        }
+        return null;
+    }
+
+    private static void remove(final Level level, final Construction construction) {
+        Long2ObjectMap<List<Construction>> chunks = CONSTRUCTIONS.get(level.dimension());
+        if (null == chunks) {
+            return;
+        }
+        BoundingBox box = construction.box;
+        for (int cx = box.minX() >> 4, mx = box.maxX() >> 4; cx <= mx; cx++) {
+            for (int cz = box.minZ() >> 4, mz = box.maxZ() >> 4; cz <= mz; cz++) {
+                long key = ChunkPos.asLong(cx, cz);
+                List<Construction> list = chunks.get(key);
+                if (list != null && list.remove(construction) && list.isEmpty()) {
+                    chunks.remove(key);
+                }
+            }
+        }
+        if (chunks.isEmpty()) {
+            CONSTRUCTIONS.remove(level.dimension());
+        }
+    }
+
+    /**
+     * A tent whose frames are being built
+     */
+    private static final class Construction {
+        private final BlockPos door;
+        private final BoundingBox box;
+        /**
+         * The positions of the frames that are not finished, packed with {@link BlockPos#asLong()}
+         */
+        private final LongSet frames;
+
+        private Construction(final BlockPos door, final BoundingBox box, final LongSet frames) {
+            this.door = door;
+            this.box = box;
+            this.frames = frames;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package nomadictents.structure;
+
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import net.minecraft.world.level.levelgen.structure.templatesystem.StructureTemplate;
+import nomadictents.NTRegistry;
+import nomadictents.NomadicTents;
+import nomadictents.block.TepeeBlock;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * The blocks of a tent interior after every structure processor has run, stored as a dense array of palette indices
+ * in a box relative to the door. An image only depends on the tent type, size, color, and rotation, so it is baked
+ * once and then copied into the world for every tent. Blank tepee walls are kept in the image and given a pattern
+ * or symbol while copying, using a seed that is unique to each tent.
+ */
+public final class TentInteriorImage {
+
+    /**
+     * The palette index of positions that are not part of the image
+     */
+    private static final short EMPTY = 0;
+
+    private final BlockState[] palette;
+    /**
+     * Palette indices of blank tepee walls, which are resolved while copying
+     */
+    private final boolean[] tepee;
+    /**
+     * Palette indices where index = {(x * ySpan + y) * zSpan + z}
+     */
+    private final short[] blocks;
+    private final int minX;
+    private final int minY;
+    private final int minZ;
+    private final int xSpan;
+    private final int ySpan;
+    private final int zSpan;
+    private final int blockCount;
+
+    private TentInteriorImage(final BlockState[] palette, final short[] blocks, final BoundingBox box, final int blockCount) {
+        this.palette = palette;
+        this.blocks = blocks;
+        this.minX = box.minX();
+        this.minY = box.minY();
+        this.minZ = box.minZ();
+        this.xSpan = box.getXSpan();
+        this.ySpan = box.getYSpan();
+        this.zSpan = box.getZSpan();
+        this.blockCount = blockCount;
+        this.tepee = new boolean[palette.length];
+        for (int i = 1; i < palette.length; i++) {
+            tepee[i] = palette[i].getBlock() == NTRegistry.BLANK_TEPEE_WALL.get();
+        }
+    }
+
+    /**
+     * Creates an image from processed template blocks
+     *
+     * @param blocks the processed blocks, with positions relative to the door and states already rotated
+     * @return the image, or null if there are no blocks
+     */
+    @Nullable
+    public static TentInteriorImage bake(final List<StructureTemplate.StructureBlockInfo> blocks) {
+        if (blocks.isEmpty()) {
+            return null;
+        }
+        // determine bounds
+        BoundingBox box = BoundingBox.encapsulatingPositions(blocks.stream().map(StructureTemplate.StructureBlockInfo::pos).toList()).orElseThrow();
+        // build palette and dense array
+        final List<BlockState> palette = new ArrayList<>();
+        final Object2IntMap<BlockState> paletteIndex = new Object2IntOpenHashMap<>();
+        paletteIndex.defaultReturnValue(-1);
+        palette.add(null);
+        final short[] array = new short[box.getXSpan() * box.getYSpan() * box.getZSpan()];
+        int count = 0;
+        for (StructureTemplate.StructureBlockInfo info : blocks) {
+            BlockPos p = info.pos();
+            int index = ((p.getX() - box.minX()) * box.getYSpan() + (p.getY() - box.minY())) * box.getZSpan() + (p.getZ() - box.minZ());
+            int stateIndex = paletteIndex.getInt(info.state());
+            if (stateIndex < 0) {
+                stateIndex = palette.size();
+                palette.add(info.state());
+                paletteIndex.put(info.state(), stateIndex);
+            }
+            if (array[index] == EMPTY) {
+                count++;
+            }
+            array[index] = (short) stateIndex;
+        }
+        return new TentInteriorImage(palette.toArray(new BlockState[0]), array, box, count);
+    }
+
+    /**
+     * @param level the world
+     * @param door  the door position
+     * @return the seed used to choose tepee patterns and symbols for the tent with the given door
+     */
+    public static long getSeed(final Level level, final BlockPos door) {
+        return Mth.murmurHash3Mixer(door.asLong() * 31L + level.dimension().location().hashCode());
+    }
+
+    /**
+     * @return the number of blocks in the image
+     */
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    /**
+     * Copies the image into the world
+     *
+     * @param writer the block writer
+     * @param door   the door position
+     * @param area   the area to copy, or null to copy the whole image
+     * @param seed   the seed from {@link #getSeed(Level, BlockPos)}
+     */
+    public void copy(final BulkBlockWriter writer, final BlockPos door, @Nullable final BoundingBox area, final long seed) {
+        forEach(door, area, seed, writer::setBlock);
+    }
+
+    /**
+     * Visits each block of the image, resolving blank tepee walls
+     *
+     * @param door     the door position
+     * @param area     the area to visit, or null to visit the whole image
+     * @param seed     the seed from {@link #getSeed(Level, BlockPos)}
+     * @param consumer accepts the position and state of each block. The position is mutable and changes after each call.
+     */
+    public void forEach(final BlockPos door, @Nullable final BoundingBox area, final long seed,
+                        final BiConsumer<BlockPos.MutableBlockPos, BlockState> consumer) {
+        final int chance = NomadicTents.CONFIG.TEPEE_DECORATED_CHANCE.get();
+        // clip to the given area
+        int x0 = 0, y0 = 0, z0 = 0, x1 = xSpan, y1 = ySpan, z1 = zSpan;
+        if (area != null) {
+            x0 = Math.max(0, area.minX() - door.getX() - minX);
+            y0 = Math.max(0, area.minY() - door.getY() - minY);
+            z0 = Math.max(0, area.minZ() - door.getZ() - minZ);
+            x1 = Math.min(xSpan, area.maxX() - door.getX() - minX + 1);
+            y1 = Math.min(ySpan, area.maxY() - door.getY() - minY + 1);
+            z1 = Math.min(zSpan, area.maxZ() - door.getZ() - minZ + 1);
+        }
+        final BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        for (int x = x0; x < x1; x++) {
+            for (int y = y0; y < y1; y++) {
+                int row = (x * ySpan + y) * zSpan;
+                for (int z = z0; z < z1; z++) {
+                    short index = blocks[row + z];
+                    if (index == EMPTY) {
+                        continue;
+                    }
+                    pos.set(door.getX() + minX + x, door.getY() + minY + y, door.getZ() + minZ + z);
+                    BlockState state = palette[index];
+                    if (tepee[index]) {
+                        state = resolveTepee(state, pos, seed, chance);
+                    }
+                    consumer.accept(pos, state);
+                }
+            }
+        }
+    }
+
+    /**
+     * Chooses a pattern for each even row and a random symbol for some blocks in odd rows
+     *
+     * @param state  the blank tepee wall
+     * @param pos    the block position
+     * @param seed   the tent seed
+     * @param chance the chance out of 100 for a symbol
+     * @return the tepee wall to place
+     */
+    private static BlockState resolveTepee(final BlockState state, final BlockPos pos, final long seed, final int chance) {
+        if (pos.getY() % 2 == 0) {
+            return TepeeBlock.getPattern(Mth.murmurHash3Mixer(seed + pos.getY()));
+        }
+        long hash = Mth.murmurHash3Mixer(seed ^ pos.asLong());
+        if (Math.floorMod(hash, 100L) < chance) {
+            return TepeeBlock.getSymbol(hash >>> 32);
+        }
+        return state;
+    }
+}
@@ -0,0 +1,92 @@
+package nomadictents.structure;
+
+import com.mojang.serialization.Codec;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.item.DyeColor;
+import net.minecraft.world.level.LevelReader;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.levelgen.structure.templatesystem.StructurePlaceSettings;
+import net.minecraft.world.level.levelgen.structure.templatesystem.StructureProcessor;
+import net.minecraft.world.level.levelgen.structure.templatesystem.StructureProcessorType;
+import net.minecraft.world.level.levelgen.structure.templatesystem.StructureTemplate;
+import nomadictents.NTRegistry;
+import nomadictents.block.IndluWallBlock;
+import nomadictents.block.ShamiyanaWallBlock;
+import nomadictents.block.YurtRoofBlock;
+import nomadictents.block.YurtWallBlock;
+
+import javax.annotation.Nullable;
+
+/**
+ * Does the work of {@link net.minecraft.world.level.levelgen.structure.templatesystem.BlockIgnoreProcessor#STRUCTURE_AND_AIR},
+ * the "inside tent" rules, and {@link ShamiyanaStructureProcessor} in a single pass.
+ * Every block state that needs to change is looked up in a table that is built once,
+ * so processing a block is one map lookup and does not allocate unless the block is replaced.
+ * Blank tepee walls are left alone and resolved by {@link TentInteriorImage}.
+ */
+public class TentInteriorProcessor extends StructureProcessor {
+
+    public static final Codec<TentInteriorProcessor> CODEC = ShamiyanaStructureProcessor.COLOR_CODEC
+            .xmap(TentInteriorProcessor::new, TentInteriorProcessor::getColor).stable();
+
+    private final DyeColor color;
+    /**
+     * Map where keys = {Template block state} and value = {Block state to place, or air to skip the block}
+     */
+    private final Reference2ObjectMap<BlockState, BlockState> table = new Reference2ObjectOpenHashMap<>();
+
+    public TentInteriorProcessor(DyeColor color) {
+        this.color = color;
+        // ignore structure blocks and air
+        final BlockState air = Blocks.AIR.defaultBlockState();
+        putAll(Blocks.STRUCTURE_BLOCK, air);
+        putAll(Blocks.AIR, air);
+        // set "inside" properties for tent blocks
+        putAll(NTRegistry.YURT_WALL.get(), NTRegistry.YURT_WALL.get().defaultBlockState().setValue(YurtWallBlock.OUTSIDE, false));
+        putAll(NTRegistry.YURT_ROOF.get(), NTRegistry.YURT_ROOF.get().defaultBlockState().setValue(YurtRoofBlock.OUTSIDE, false));
+        putAll(NTRegistry.INDLU_WALL.get(), NTRegistry.INDLU_WALL.get().defaultBlockState().setValue(IndluWallBlock.OUTSIDE, false));
+        // replace white shamiyana walls with the given color
+        final BlockState colored = TentPlacer.SHAMIYANA_WALLS.get(color).get().defaultBlockState();
+        for (BlockState state : NTRegistry.WHITE_SHAMIYANA_WALL.get().getStateDefinition().getPossibleStates()) {
+            table.put(state, colored.setValue(ShamiyanaWallBlock.PATTERN, state.getValue(ShamiyanaWallBlock.PATTERN)));
+        }
+    }
+
+    public DyeColor getColor() {
+        return color;
+    }
+
+    /**
+     * Replaces every state of the given block with the given state
+     *
+     * @param block the block in the template
+     * @param state the state to place
+     */
+    private void putAll(final Block block, final BlockState state) {
+        for (BlockState s : block.getStateDefinition().getPossibleStates()) {
+            table.put(s, state);
+        }
+    }
+
+    @Nullable
+    @Override
+    public StructureTemplate.StructureBlockInfo process(LevelReader level, BlockPos rawPos, BlockPos pos, StructureTemplate.StructureBlockInfo rawBlockInfo, StructureTemplate.StructureBlockInfo blockInfo, StructurePlaceSettings placementSettings, @Nullable StructureTemplate template) {
+        BlockState state = table.get(blockInfo.state());
+        if (null == state) {
+            return blockInfo;
+        }
+        if (state.isAir()) {
+            return null;
+        }
+        return new StructureTemplate.StructureBlockInfo(blockInfo.pos(), state, blockInfo.nbt());
+    }
+
+    @Override
+    protected StructureProcessorType<?> getType() {
+        return NTRegistry.TENT_INTERIOR_PROCESSOR;
+    }
+}
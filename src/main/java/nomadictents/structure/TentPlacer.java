@@ -2,7 +2,8 @@ package nomadictents.structure;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.ImmutableSet;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.resources.ResourceLocation;
@@ -36,6 +37,7 @@ import net.minecraftforge.registries.ForgeRegistries;
 import net.minecraftforge.registries.RegistryObject;
 import nomadictents.NTRegistry;
 import nomadictents.NomadicTents;
+import nomadictents.block.DoubleTentBlock;
 import nomadictents.block.IndluWallBlock;
 import nomadictents.block.TentDoorBlock;
 import nomadictents.block.YurtRoofBlock;
@@ -48,6 +50,8 @@ import nomadictents.util.TentType;
 
 import javax.annotation.Nullable;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -63,6 +67,10 @@ public final class TentPlacer {
      **/
     public static final int TENT_Y = 64;
     private static final String MODID = NomadicTents.MODID;
+    /**
+     * Blocks that count as part of a complete tent
+     */
+    public static final TagKey<Block> TENT_WALL_TAG = BlockTags.create(new ResourceLocation(MODID, "tent/tent_wall"));
 
     private static TentPlacer instance;
 
@@ -190,19 +198,28 @@ public final class TentPlacer {
     private final RuleProcessor removeBarrierProcessor;
     private final RuleProcessor removeTentBlockProcessor;
     private final RuleProcessor frameBlockProcessor;
-    private final RuleProcessor insideTentProcessor;
+    /**
+     * Map where keys = {DyeColor} and value = {Processor for tent interiors of that color}
+     */
+    private final Map<DyeColor, TentInteriorProcessor> interiorProcessors = new EnumMap<>(DyeColor.class);
 
     /**
-     * Map where keys = {TentSize,TentType} and value = {Relative block positions}
+     * Table where index = {TentSize,TentType,Rotation} and value = {Tent block positions relative to the door, packed with {@link BlockPos#asLong()}}.
+     * Entries are computed the first time they are needed and cleared when the templates are reloaded.
      */
-    private final Map<TentSize, Map<TentType, Set<BlockPos>>> templatePositions = new EnumMap<>(TentSize.class);
+    private final AtomicReferenceArray<long[]> templatePositions = new AtomicReferenceArray<>(
+            TentSize.values().length * TentType.values().length * Rotation.values().length);
+    /**
+     * Table where index = {TentSize,TentType,DyeColor or none,Rotation} and value = {Baked tent interior}.
+     * Entries are baked the first time they are needed and cleared when the templates are reloaded.
+     */
+    private final AtomicReferenceArray<TentInteriorImage> interiorImages = new AtomicReferenceArray<>(
+            TentSize.values().length * TentType.values().length * (DyeColor.values().length + 1) * Rotation.values().length);
 
     public TentPlacer() {
-        TagKey<Block> tentWallTag = BlockTags.create(new ResourceLocation(MODID, "tent/tent_wall"));
-
         // initialize rule tests
         barrierTest = new BlockMatchTest(Blocks.BARRIER);
-        tentBlockTest = new TagMatchTest(tentWallTag);
+        tentBlockTest = new TagMatchTest(TENT_WALL_TAG);
         // create processor to replace barriers with air
         removeBarrierProcessor = new RuleProcessor(
                 ImmutableList.of(new ProcessorRule(barrierTest, AlwaysTrueTest.INSTANCE, Blocks.AIR.defaultBlockState()))
@@ -224,16 +241,10 @@ public final class TentPlacer {
         // create processor to replace tent blocks with correct frame
         frameBlockProcessor = new RuleProcessor(frameBlocksBuilder.build());
 
-        // create processor to set "inside" properties for tent blocks
-        insideTentProcessor = new RuleProcessor(
-                new ImmutableList.Builder<ProcessorRule>()
-                        .add(new ProcessorRule(new BlockMatchTest(NTRegistry.YURT_WALL.get()), AlwaysTrueTest.INSTANCE,
-                                NTRegistry.YURT_WALL.get().defaultBlockState().setValue(YurtWallBlock.OUTSIDE, false)))
-                        .add(new ProcessorRule(new BlockMatchTest(NTRegistry.YURT_ROOF.get()), AlwaysTrueTest.INSTANCE,
-                                NTRegistry.YURT_ROOF.get().defaultBlockState().setValue(YurtRoofBlock.OUTSIDE, false)))
-                        .add(new ProcessorRule(new BlockMatchTest(NTRegistry.INDLU_WALL.get()), AlwaysTrueTest.INSTANCE,
-                                NTRegistry.INDLU_WALL.get().defaultBlockState().setValue(IndluWallBlock.OUTSIDE, false)))
-                        .build());
+        // create processors for tent interiors
+        for (DyeColor color : DyeColor.values()) {
+            interiorProcessors.put(color, new TentInteriorProcessor(color));
+        }
     }
 
     /**
@@ -273,20 +284,16 @@ public final class TentPlacer {
     public boolean canPlaceTentFrame(final Level level, final BlockPos door, final TentType type, final TentSize size, final Direction direction) {
         // determine the size of tent to place frames
         TentSize useSize = getOverworldSize(size);
-        // determine template to use
-        StructureTemplate template = getTemplate(level, type, useSize);
-        if (null == template) {
+        // determine location
+        long[] tentBlocks = getTentBlockOffsets(level, type, useSize, toRotation(direction));
+        if (tentBlocks.length == 0) {
             return false;
         }
-        // determine location
-        Rotation rotation = toRotation(direction);
-        BlockPos origin = door.offset(BlockPos.ZERO.offset(0, 0, -template.getSize().getZ() / 2).rotate(rotation));
-        Set<BlockPos> tentBlocks = getTentBlockPositions(level, door, type, useSize);
         // check each block to make sure it is replaceable
-        BlockPos checkPos;
+        BlockPos.MutableBlockPos checkPos = new BlockPos.MutableBlockPos();
         BlockState checkState;
-        for (BlockPos pos : tentBlocks) {
-            checkPos = origin.offset(pos.rotate(rotation));
+        for (long pos : tentBlocks) {
+            checkPos.setWithOffset(door, BlockPos.getX(pos), BlockPos.getY(pos), BlockPos.getZ(pos));
             checkState = level.getBlockState(checkPos);
             if (!checkState.canBeReplaced() && !checkState.is(NTRegistry.DOOR_FRAME.get())) {
                 return false;
@@ -308,44 +315,119 @@ public final class TentPlacer {
      */
     public boolean placeOrUpgradeTent(final Level level, final BlockPos door, final Tent tent,
                                       final ServerLevel sourceLevel, final Vec3 sourceVec, final float sourceRot) {
+        // ensure server side
+        if (level.isClientSide || !(level instanceof ServerLevel)) {
+            return false;
+        }
+        createBuildJob((ServerLevel) level, door, tent, sourceLevel, sourceVec, sourceRot, Integer.MAX_VALUE).run(Integer.MAX_VALUE);
+        return true;
+    }
+
+    /**
+     * Creates a job that places a new tent or upgrades an existing one, and updates the tent door in the step that places it.
+     * The door is marked as building until the last step, so a job that is stopped early is finished by the next job.
+     * The tent, platform, and decorations are split into slices of about {@code sliceBudget} blocks
+     * so that the job can be spread over several ticks by the {@link TentBuildScheduler}.
+     *
+     * @param level       the world
+     * @param door        the door position
+     * @param tent        the tent information
+     * @param sourceLevel the player previous world
+     * @param sourceVec   the player previous location
+     * @param sourceRot   the player previous rotation
+     * @param sliceBudget the approximate number of blocks in each step of the job
+     * @return the build job
+     */
+    public TentBuildJob createBuildJob(final ServerLevel level, final BlockPos door, final Tent tent,
+                                       final ServerLevel sourceLevel, final Vec3 sourceVec, final float sourceRot,
+                                       final int sliceBudget) {
+        final TentBuildJob job = new TentBuildJob(level.dimension(), door, tent);
         // whether a structure was already built here (for upgrading and door-updating purposes)
         final boolean tentExists = level.getBlockState(door).getBlock() instanceof TentDoorBlock;
         // the old data stored by the tent door if it exists, or the current data if no door exists
         Tent prevTent = tent;
+        // whether the last build job for this tent was stopped before it finished
+        boolean resume = false;
         if (tentExists) {
             BlockEntity blockEntity = level.getBlockEntity(door);
             if (blockEntity instanceof TentDoorBlockEntity) {
                 TentDoorBlockEntity tentDoor = (TentDoorBlockEntity) blockEntity;
                 // set up tile entity fields
                 prevTent = tentDoor.getTent();
+                resume = tentDoor.isBuilding();
             }
         }
+        final Tent oldTent = prevTent;
         // whether the tent needs to be replaced (size or color is changed)
         final boolean rebuildTent = prevTent.getSize() != tent.getSize() || prevTent.getColor() != tent.getColor();
+        // whether the tent is placed as if it were new. A tent whose build was stopped is placed again,
+        // which only changes the blocks that are missing or different.
+        final boolean placeNew = !tentExists || (resume && !rebuildTent);
         // whether the platform needs to be replaced (size or layers is changed)
-        final boolean rebuildPlatform = prevTent.getSize() != tent.getSize() || prevTent.getLayers() != tent.getLayers();
+        final boolean rebuildPlatform = !placeNew
+                && (prevTent.getSize() != tent.getSize() || prevTent.getLayers() != tent.getLayers());
+        // the door data is written in the same step that places the door, so a door is never left
+        // without its tent information, and is marked as building until the last step of the job
+        final Runnable updateDoor = () -> updateDoor(level, door, tent, sourceLevel, sourceVec, sourceRot, true);
         // remove tent in preparation for new tent
+        // change only the blocks that differ between the old tent and the new tent
         if (rebuildTent) {
-            removeTent(level, door, prevTent.getType(), prevTent.getSize(), TENT_DIRECTION);
+            addUpgradeSteps(job, level, door, oldTent, tent, sliceBudget, updateDoor);
+        } else if (tentExists) {
+            job.addStep(1, updateDoor);
         }
         // place new tent
-        if (!tentExists || rebuildTent) {
-            placeTent(level, door, tent.getType(), tent.getSize(), TENT_DIRECTION, tent.getColor());
+        if (placeNew) {
+            addSlices(job, getTemplate(level, tent.getType(), tent.getSize()), door, sliceBudget, area -> {
+                placeTent(level, door, tent.getType(), tent.getSize(), TENT_DIRECTION, tent.getColor(), area);
+                if (null == area || area.isInside(door)) {
+                    updateDoor.run();
+                }
+            });
         }
         // place platform
-        if (!tentExists) {
-            placePlatform(level, door, tent.getType(), tent.getSize(), tent.getLayers(), true);
+        StructureTemplate template = getTemplate(level, tent.getType(), tent.getSize());
+        if (placeNew && template != null) {
+            final int width = template.getSize().getX();
+            final int columnCost = width * (tent.getLayers() + 2);
+            final int rows = Math.max(1, Math.min(width, sliceBudget / columnCost));
+            for (int x = 0; x < width; x += rows) {
+                final int minX = x;
+                final int maxX = Math.min(width, x + rows);
+                job.addStep(columnCost * (maxX - minX), () -> placePlatform(level, door, tent.getType(), tent.getSize(), tent.getLayers(), true, minX, maxX));
+            }
         }
         // rebuild platform
-        if (tentExists && rebuildPlatform) {
-            upgradePlatform(level, door, tent.getType(), prevTent.getSize(), tent.getSize(), prevTent.getLayers(), tent.getLayers());
+        if (rebuildPlatform && template != null) {
+            final int width = template.getSize().getX();
+            job.addStep(width * width * (tent.getLayers() + 2),
+                    () -> upgradePlatform(level, door, tent.getType(), oldTent.getSize(), tent.getSize(), oldTent.getLayers(), tent.getLayers()));
         }
         // place decorations
-        if ((!tentExists && NomadicTents.CONFIG.TENT_DECOR_BUILD.get())
+        if ((placeNew && NomadicTents.CONFIG.TENT_DECOR_BUILD.get())
                 || (rebuildTent && NomadicTents.CONFIG.TENT_DECOR_UPGRADE.get())) {
-            placeTentDecor(level, door, tent.getType(), tent.getSize(), TENT_DIRECTION);
+            addSlices(job, getDecorTemplate(level, tent.getType(), tent.getSize()), door, sliceBudget,
+                    area -> placeTentDecor(level, door, tent.getType(), tent.getSize(), TENT_DIRECTION, area));
         }
-        // update door
+        // finish the door
+        job.addStep(1, () -> updateDoor(level, door, tent, sourceLevel, sourceVec, sourceRot, false));
+        return job;
+    }
+
+    /**
+     * Writes the tent information and return point to the tent door, if it exists
+     *
+     * @param level       the world
+     * @param door        the door position
+     * @param tent        the tent information
+     * @param sourceLevel the player previous world
+     * @param sourceVec   the player previous location
+     * @param sourceRot   the player previous rotation
+     * @param building    true if the build job has more steps after this one
+     */
+    private static void updateDoor(final Level level, final BlockPos door, final Tent tent,
+                                   final ServerLevel sourceLevel, final Vec3 sourceVec, final float sourceRot,
+                                   final boolean building) {
         BlockEntity blockEntity = level.getBlockEntity(door);
         if (blockEntity instanceof TentDoorBlockEntity) {
             TentDoorBlockEntity tentDoor = (TentDoorBlockEntity) blockEntity;
@@ -353,8 +435,187 @@ public final class TentPlacer {
             tentDoor.setSpawnpoint(sourceLevel, sourceVec);
             tentDoor.setSpawnRot(sourceRot);
             tentDoor.setTent(tent);
+            tentDoor.setBuilding(building);
+        }
+    }
+
+    /**
+     * Adds steps to a build job that turn an existing tent into a tent of a different size or color.
+     * The old and new templates are compared position by position: blocks that are not part of the new tent
+     * are removed, blocks that are new or different are placed, and blocks that are already correct are left alone.
+     *
+     * @param job         the build job
+     * @param level       the world
+     * @param door        the door position
+     * @param oldTent     the tent that is in the world
+     * @param newTent     the tent to build
+     * @param sliceBudget the approximate number of blocks in each step
+     * @param updateDoor  writes the new tent information to the door, run in the same step that places the door
+     */
+    private void addUpgradeSteps(final TentBuildJob job, final ServerLevel level, final BlockPos door, final Tent oldTent, final Tent newTent,
+                                 final int sliceBudget, final Runnable updateDoor) {
+        StructureTemplate oldTemplate = getTemplate(level, oldTent.getType(), oldTent.getSize());
+        StructureTemplate newTemplate = getTemplate(level, newTent.getType(), newTent.getSize());
+        BlockState doorState = getDoor(newTent.getType(), newTent.getSize(), TENT_DIRECTION);
+        Rotation rotation = toRotation(TENT_DIRECTION);
+        TentInteriorImage newImage = getInteriorImage(level, door, newTent.getType(), newTent.getSize(), newTent.getColor(), rotation);
+        if (null == oldTemplate || null == newTemplate || null == doorState || null == newImage) {
+            job.addStep(1, updateDoor);
+            return;
+        }
+        // determine the blocks of the new tent
+        final List<StructureTemplate.StructureBlockInfo> toPlace = new ArrayList<>();
+        final LongSet newPositions = new LongOpenHashSet();
+        newImage.forEach(door, null, TentInteriorImage.getSeed(level, door), (pos, state) -> {
+            BlockPos p = pos.immutable();
+            newPositions.add(p.asLong());
+            if (level.getBlockState(p) != state) {
+                toPlace.add(new StructureTemplate.StructureBlockInfo(p, state, null));
+            }
+        });
+        // determine the blocks of the old tent that are not part of the new tent
+        BlockPos oldOrigin = door.offset(BlockPos.ZERO.offset(0, 0, -oldTemplate.getSize().getZ() / 2).rotate(rotation));
+        StructurePlaceSettings oldPlacement = new StructurePlaceSettings().setRotation(rotation);
+        final List<BlockPos> toRemove = new ArrayList<>();
+        for (Block b : getTemplateBlocks()) {
+            for (StructureTemplate.StructureBlockInfo info : oldTemplate.filterBlocks(oldOrigin, oldPlacement, b, true)) {
+                if (!newPositions.contains(info.pos().asLong())) {
+                    toRemove.add(info.pos());
+                }
+            }
+        }
+        NomadicTents.LOGGER.debug("Upgrading tent at " + door + " in '" + level.dimension().location() + "': removing " + toRemove.size()
+                + " blocks, placing " + toPlace.size() + " blocks, keeping " + (newPositions.size() - toPlace.size()) + " blocks");
+        // the states of these blocks are already resolved and are not recalculated while the tent changes
+        final LongSet bulk = new LongOpenHashSet(newPositions);
+        for (BlockPos pos : toRemove) {
+            bulk.add(pos.asLong());
+        }
+        // remove old blocks
+        final int step = Math.max(1, sliceBudget);
+        for (int i = 0, n = toRemove.size(); i < n; i += step) {
+            final List<BlockPos> slice = toRemove.subList(i, Math.min(n, i + step));
+            job.addStep(slice.size(), () -> DoubleTentBlock.runBulkPlacement(bulk, () -> {
+                for (BlockPos pos : slice) {
+                    BlockState state = level.getBlockState(pos);
+                    if (state.is(TENT_WALL_TAG) || state.is(Blocks.BARRIER)) {
+                        level.setBlock(pos, Blocks.AIR.defaultBlockState(), Block.UPDATE_ALL);
+                    }
+                }
+            }));
+        }
+        // place new and changed blocks
+        for (int i = 0, n = toPlace.size(); i < n; i += step) {
+            final List<StructureTemplate.StructureBlockInfo> slice = toPlace.subList(i, Math.min(n, i + step));
+            job.addStep(slice.size(), () -> DoubleTentBlock.runBulkPlacement(bulk, () -> {
+                for (StructureTemplate.StructureBlockInfo info : slice) {
+                    level.setBlock(info.pos(), info.state(), Block.UPDATE_ALL);
+                }
+            }));
+        }
+        // place door blocks
+        job.addStep(1, () -> {
+            if (level.getBlockState(door) != doorState) {
+                level.setBlock(door, doorState, Block.UPDATE_ALL);
+            }
+            updateDoor.run();
+        });
+    }
+
+    /**
+     * @return the blocks that make up a tent template, which are the tent walls and barriers
+     */
+    private static List<Block> getTemplateBlocks() {
+        List<Block> blocks = new ArrayList<>();
+        ForgeRegistries.BLOCKS.tags().getTag(TENT_WALL_TAG).forEach(blocks::add);
+        blocks.add(Blocks.BARRIER);
+        return blocks;
+    }
+
+    /**
+     * @param rotation the template rotation
+     * @param color    the color of the tent, if any
+     * @return the placement settings used to bake a tent interior. Blank tepee walls are resolved by {@link TentInteriorImage}.
+     */
+    private StructurePlaceSettings createTentPlacement(final Rotation rotation, @Nullable DyeColor color) {
+        // white shamiyana walls are unchanged when there is no color
+        return new StructurePlaceSettings()
+                .setRotation(rotation)
+                .addProcessor(interiorProcessors.get(color != null ? color : DyeColor.WHITE));
+    }
+
+    /**
+     * @param level    the world
+     * @param door     the door position of the tent that is about to be placed
+     * @param type     the tent type
+     * @param size     the tent size
+     * @param color    the color of the tent, if any
+     * @param rotation the template rotation
+     * @return the baked interior of the tent, or null if the template is not found
+     */
+    @Nullable
+    public TentInteriorImage getInteriorImage(final ServerLevel level, final BlockPos door, final TentType type, final TentSize size,
+                                              @Nullable final DyeColor color, final Rotation rotation) {
+        final int colorIndex = color != null ? color.getId() + 1 : 0;
+        final int index = ((size.ordinal() * TentType.values().length + type.ordinal()) * (DyeColor.values().length + 1) + colorIndex)
+                * Rotation.values().length + rotation.ordinal();
+        TentInteriorImage image = interiorImages.get(index);
+        if (image != null) {
+            return image;
+        }
+        // determine template to use
+        StructureTemplate template = getTemplate(level, type, size);
+        if (null == template) {
+            return null;
+        }
+        // process the template at the door, then store positions relative to the door
+        BlockPos origin = door.offset(BlockPos.ZERO.offset(0, 0, -template.getSize().getZ() / 2).rotate(rotation));
+        StructurePlaceSettings placement = createTentPlacement(rotation, color);
+        List<StructureTemplate.StructureBlockInfo> rawBlocks = new ArrayList<>();
+        for (Block b : getTemplateBlocks()) {
+            rawBlocks.addAll(template.filterBlocks(origin, placement, b, false));
+        }
+        List<StructureTemplate.StructureBlockInfo> blocks = new ArrayList<>();
+        for (StructureTemplate.StructureBlockInfo info : StructureTemplate.processBlockInfos(level, origin, origin, placement, rawBlocks, template)) {
+            BlockState state = info.state().mirror(placement.getMirror()).rotate(placement.getRotation());
+            blocks.add(new StructureTemplate.StructureBlockInfo(info.pos().subtract(door), state, null));
+        }
+        image = TentInteriorImage.bake(blocks);
+        if (null == image) {
+            return null;
+        }
+        interiorImages.compareAndSet(index, null, image);
+        return interiorImages.get(index);
+    }
+
+    /**
+     * Adds steps to a build job that each place a slice of the given template, front to back
+     *
+     * @param job         the build job
+     * @param template    the template, or null to add no steps
+     * @param door        the door position
+     * @param sliceBudget the approximate number of blocks in each slice
+     * @param placer      places the part of the template inside the given area, or the whole template if the area is null
+     */
+    private static void addSlices(final TentBuildJob job, @Nullable final StructureTemplate template, final BlockPos door,
+                                  final int sliceBudget, final Consumer<BoundingBox> placer) {
+        if (null == template) {
+            return;
+        }
+        Rotation rotation = toRotation(TENT_DIRECTION);
+        BlockPos origin = door.offset(BlockPos.ZERO.offset(0, 0, -template.getSize().getZ() / 2).rotate(rotation));
+        BoundingBox box = template.getBoundingBox(new StructurePlaceSettings().setRotation(rotation), origin);
+        final int sliceCost = box.getYSpan() * box.getZSpan();
+        final int sliceWidth = Math.max(1, sliceBudget / Math.max(1, sliceCost));
+        // place the whole template at once when it fits
+        if (sliceWidth >= box.getXSpan()) {
+            job.addStep(sliceCost * box.getXSpan(), () -> placer.accept(null));
+            return;
+        }
+        for (int x = box.minX(); x <= box.maxX(); x += sliceWidth) {
+            final BoundingBox area = new BoundingBox(x, box.minY(), box.minZ(), Math.min(box.maxX(), x + sliceWidth - 1), box.maxY(), box.maxZ());
+            job.addStep(sliceCost * area.getXSpan(), () -> placer.accept(area));
         }
-        return true;
     }
 
     /**
@@ -381,6 +642,8 @@ public final class TentPlacer {
                     tentDoor.setOwner(owner.getUUID());
                 }
             }
+            // track frames so that the mallet can find the door
+            TentConstructionTracker.track(level, door);
         }
         return success;
     }
@@ -398,41 +661,46 @@ public final class TentPlacer {
      */
     public boolean placeTent(final Level level, final BlockPos door, final TentType type, final TentSize size,
                              final Direction direction, @Nullable DyeColor color) {
+        return placeTent(level, door, type, size, direction, color, null);
+    }
+
+    /**
+     * Places part of a tent structure in the world, assumed to be a tent dimension
+     *
+     * @param level     the world
+     * @param door      the door position
+     * @param type      the tent type
+     * @param size      the tent size
+     * @param direction the facing direction of the tent
+     * @param color     the color of the tent, if any
+     * @param area      the area to place, or null to place the whole tent
+     * @return true if the tent was placed successfully
+     */
+    public boolean placeTent(final Level level, final BlockPos door, final TentType type, final TentSize size,
+                             final Direction direction, @Nullable DyeColor color, @Nullable BoundingBox area) {
         // ensure server side
         if (level.isClientSide || !(level instanceof ServerLevel)) {
             return false;
         }
-        ServerLevelAccessor serverLevel = (ServerLevel) level;
-        // determine template to use
-        StructureTemplate template = getTemplate(level, type, size);
-        if (null == template) {
-            return false;
-        }
+        ServerLevel serverLevel = (ServerLevel) level;
         // determine door block to use
         BlockState doorState = getDoor(type, size, direction);
         if (null == doorState) {
             return false;
         }
-
-        // set up template placement settings
-        Rotation rotation = toRotation(direction);
-        BlockPos origin = door.offset(BlockPos.ZERO.offset(0, 0, -template.getSize().getZ() / 2).rotate(rotation));
-        RandomSource rand = RandomSource.create(door.hashCode() + level.dimension().location().hashCode());
-        BoundingBox mbb = BoundingBox.fromCorners(origin.subtract(template.getSize()), origin.offset(template.getSize()));
-        StructurePlaceSettings placement = new StructurePlaceSettings()
-                .setRotation(rotation).setRandom(rand).setBoundingBox(mbb)
-                .addProcessor(BlockIgnoreProcessor.STRUCTURE_AND_AIR)
-                .addProcessor(TepeeStructureProcessor.TEPEE_PROCESSOR)
-                .addProcessor(insideTentProcessor);
-        if (color != null) {
-            placement.addProcessor(SHAMIYANA_PROCESSORS.get(color));
-        }
-        // place the template
-        if (!template.placeInWorld(serverLevel, origin, origin, placement, rand, Block.UPDATE_ALL)) {
+        // determine tent interior to use
+        TentInteriorImage image = getInteriorImage(serverLevel, door, type, size, color, toRotation(direction));
+        if (null == image) {
             return false;
         }
+        // copy the tent interior
+        BulkBlockWriter writer = new BulkBlockWriter(serverLevel);
+        image.copy(writer, door, area, TentInteriorImage.getSeed(level, door));
+        writer.finish();
         // place door blocks
-        level.setBlock(door, doorState, Block.UPDATE_ALL);
+        if (null == area || area.isInside(door)) {
+            level.setBlock(door, doorState, Block.UPDATE_ALL);
+        }
         return true;
     }
 
@@ -448,6 +716,22 @@ public final class TentPlacer {
      */
     public boolean placeTentDecor(final Level level, final BlockPos door, final TentType type, final TentSize size,
                                   final Direction direction) {
+        return placeTentDecor(level, door, type, size, direction, null);
+    }
+
+    /**
+     * Places part of the decoration for a tent structure in the world
+     *
+     * @param level     the world
+     * @param door      the door position
+     * @param type      the tent type
+     * @param size      the tent size
+     * @param direction the facing direction of the tent
+     * @param area      the area to place, or null to place all decorations
+     * @return true if the tent decor was placed successfully
+     */
+    public boolean placeTentDecor(final Level level, final BlockPos door, final TentType type, final TentSize size,
+                                  final Direction direction, @Nullable BoundingBox area) {
         // ensure server side
         if (level.isClientSide || !(level instanceof ServerLevel)) {
             return false;
@@ -463,7 +747,7 @@ public final class TentPlacer {
         Rotation rotation = toRotation(direction);
         BlockPos origin = door.offset(BlockPos.ZERO.offset(0, 0, -template.getSize().getZ() / 2).rotate(rotation));
         RandomSource rand = RandomSource.create(door.hashCode());
-        BoundingBox mbb = BoundingBox.fromCorners(origin.subtract(template.getSize()), origin.offset(template.getSize()));
+        BoundingBox mbb = area != null ? area : BoundingBox.fromCorners(origin.subtract(template.getSize()), origin.offset(template.getSize()));
         StructurePlaceSettings placement = new StructurePlaceSettings()
                 .setRotation(rotation).setRandom(rand).setBoundingBox(mbb)
                 .addProcessor(BlockIgnoreProcessor.STRUCTURE_AND_AIR)
@@ -537,30 +821,44 @@ public final class TentPlacer {
         if (level.isClientSide || !(level instanceof ServerLevel)) {
             return false;
         }
-        // determine template to use
-        StructureTemplate template = getTemplate(level, type, size);
-        if (null == template) {
+        // determine positions to check
+        long[] tentBlocks = getTentBlockOffsets(level, type, size, toRotation(direction));
+        if (tentBlocks.length == 0) {
             return false;
         }
-        // determine positions to check
-        Rotation rotation = toRotation(direction);
-        BlockPos origin = door.offset(BlockPos.ZERO.offset(0, 0, -template.getSize().getZ() / 2).rotate(rotation));
-        Set<BlockPos> tentBlocks = getTentBlockPositions(level, door, type, size);
-        // load tent block tag
-        TagKey<Block> tentWallTag = BlockTags.create(new ResourceLocation(MODID, "tent/tent_wall"));
         // check each block to make sure it is in tent_wall tag (or is tent door)
-        BlockPos checkPos;
+        BlockPos.MutableBlockPos checkPos = new BlockPos.MutableBlockPos();
         BlockState checkState;
-        for (BlockPos pos : tentBlocks) {
-            checkPos = origin.offset(pos.rotate(rotation));
+        for (long pos : tentBlocks) {
+            checkPos.setWithOffset(door, BlockPos.getX(pos), BlockPos.getY(pos), BlockPos.getZ(pos));
             checkState = level.getBlockState(checkPos);
-            if (!checkState.is(tentWallTag) && !(checkState.getBlock() instanceof TentDoorBlock)) {
+            if (!checkState.is(TENT_WALL_TAG) && !(checkState.getBlock() instanceof TentDoorBlock)) {
                 return false;
             }
         }
         return true;
     }
 
+    /**
+     * @param level     the world
+     * @param door      the door position
+     * @param type      the tent type
+     * @param size      the tent size
+     * @param direction the tent direction
+     * @return the box that contains every block of the tent, or null if the template is not found
+     */
+    @Nullable
+    public BoundingBox getTentBoundingBox(final Level level, final BlockPos door, final TentType type, final TentSize size, final Direction direction) {
+        // determine template to use
+        StructureTemplate template = getTemplate(level, type, size);
+        if (null == template) {
+            return null;
+        }
+        Rotation rotation = toRotation(direction);
+        BlockPos origin = door.offset(BlockPos.ZERO.offset(0, 0, -template.getSize().getZ() / 2).rotate(rotation));
+        return template.getBoundingBox(new StructurePlaceSettings().setRotation(rotation), origin);
+    }
+
     /**
      * Replaces tent blocks with air
      *
@@ -572,6 +870,22 @@ public final class TentPlacer {
      * @return true if the tent was successfully removed
      */
     public boolean removeTent(final Level level, final BlockPos door, final TentType type, final TentSize size, final Direction direction) {
+        return removeTent(level, door, type, size, direction, null);
+    }
+
+    /**
+     * Replaces tent blocks with air inside part of the tent
+     *
+     * @param level     the world
+     * @param door      the door position
+     * @param type      the tent type
+     * @param size      the tent size
+     * @param direction the tent facing direction
+     * @param area      the area to remove, or null to remove the whole tent
+     * @return true if the tent was successfully removed
+     */
+    public boolean removeTent(final Level level, final BlockPos door, final TentType type, final TentSize size, final Direction direction,
+                              @Nullable BoundingBox area) {
         // ensure server side
         if (level.isClientSide || !(level instanceof ServerLevel)) {
             return false;
@@ -587,13 +901,20 @@ public final class TentPlacer {
         BlockPos origin = door.offset(BlockPos.ZERO.offset(0, 0, -template.getSize().getZ() / 2).rotate(rotation));
         RandomSource rand = RandomSource.create(door.hashCode());
 
-        BoundingBox mbb = BoundingBox.fromCorners(origin.subtract(template.getSize()), origin.offset(template.getSize()));
+        BoundingBox mbb = area != null ? area : BoundingBox.fromCorners(origin.subtract(template.getSize()), origin.offset(template.getSize()));
         StructurePlaceSettings placement = new StructurePlaceSettings()
                 .setRotation(rotation).setRandom(rand).setBoundingBox(mbb)
                 .addProcessor(BlockIgnoreProcessor.STRUCTURE_AND_AIR)
                 .addProcessor(removeBarrierProcessor)
                 .addProcessor(removeTentBlockProcessor);
-        return template.placeInWorld(serverLevel, origin, origin, placement, rand, Block.UPDATE_ALL);
+        // remaining tent blocks are about to be removed, so their states do not need to change
+        final LongSet bulk = new LongOpenHashSet();
+        for (long offset : getTentBlockOffsets(level, type, size, rotation)) {
+            bulk.add(BlockPos.offset(door.asLong(), BlockPos.getX(offset), BlockPos.getY(offset), BlockPos.getZ(offset)));
+        }
+        final boolean[] success = new boolean[1];
+        DoubleTentBlock.runBulkPlacement(bulk, () -> success[0] = template.placeInWorld(serverLevel, origin, origin, placement, rand, Block.UPDATE_ALL));
+        return success[0];
     }
 
     /**
@@ -609,6 +930,24 @@ public final class TentPlacer {
      * @return true if the platform was created successfully
      */
     public boolean placePlatform(final Level level, final BlockPos door, final TentType type, final TentSize size, final int layers, boolean fill) {
+        return placePlatform(level, door, type, size, layers, fill, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Places part of the platform underneath a tent. The tent must exist in the world.
+     *
+     * @param level  the world
+     * @param door   the door position
+     * @param type   the tent type
+     * @param size   the tent size
+     * @param layers the number of layer upgrades
+     * @param fill   true to fill harvestable space with dirt
+     * @param minX   the first row to place, counting from the door
+     * @param maxX   the row after the last row to place, counting from the door
+     * @return true if the platform was created successfully
+     */
+    public boolean placePlatform(final Level level, final BlockPos door, final TentType type, final TentSize size, final int layers, boolean fill,
+                                 final int minX, final int maxX) {
         // ensure server side
         if (level.isClientSide || !(level instanceof ServerLevel)) {
             return false;
@@ -623,12 +962,13 @@ public final class TentPlacer {
         int width = template.getSize().getX();
         BlockState rigidDirt = NTRegistry.RIGID_DIRT.get().defaultBlockState();
         BlockState dirt = NomadicTents.CONFIG.getFloorBlock().defaultBlockState();
+        BulkBlockWriter writer = new BulkBlockWriter((ServerLevel) level);
 
         // place dirt in a square at this location
         BlockPos p;
         boolean rigid;
         BlockState state;
-        for (int x = 0; x < width; x++) {
+        for (int x = Math.max(0, minX), mx = Math.min(width, maxX); x < mx; x++) {
             for (int z = 0; z < width; z++) {
                 // determine block location
                 p = origin.offset(x, 0, z);
@@ -637,13 +977,12 @@ public final class TentPlacer {
                 state = rigid ? rigidDirt : dirt;
                 // place in a column at this location
                 if (rigid || fill) {
-                    for (int y = 0, l = layers + 1; y < l; y++) {
-                        level.setBlock(p.below(y), state, Block.UPDATE_ALL);
-                    }
+                    writer.fillColumn(p, layers + 1, state);
                 }
-                level.setBlock(p.below(layers + 1), rigidDirt, Block.UPDATE_ALL);
+                writer.setBlock(p.below(layers + 1), rigidDirt);
             }
         }
+        writer.finish();
         return true;
     }
 
@@ -684,6 +1023,7 @@ public final class TentPlacer {
 
         BlockState rigidDirt = NTRegistry.RIGID_DIRT.get().defaultBlockState();
         BlockState dirt = NomadicTents.CONFIG.getFloorBlock().defaultBlockState();
+        BulkBlockWriter writer = new BulkBlockWriter((ServerLevel) level);
 
         // place new
         if (upgradeSize) {
@@ -706,10 +1046,8 @@ public final class TentPlacer {
                     rigid = level.getBlockState(p.above()).getPistonPushReaction() == PushReaction.BLOCK;
                     state = rigid ? rigidDirt : dirt;
                     // place in a column at this location
-                    for (int y = 0, l = layersOld + 1; y < l; y++) {
-                        level.setBlock(p.below(y), state, Block.UPDATE_ALL);
-                    }
-                    level.setBlock(p.below(layersOld + 1), rigidDirt, Block.UPDATE_ALL);
+                    writer.fillColumn(p, layersOld + 1, state);
+                    writer.setBlock(p.below(layersOld + 1), rigidDirt);
                 }
             }
         }
@@ -734,13 +1072,12 @@ public final class TentPlacer {
                         state = dirt;
                     }
                     // place in a column at this location
-                    for (int y = layersOld + 1, l = layersNew + 1; y < l; y++) {
-                        level.setBlock(p.below(y), state, Block.UPDATE_ALL);
-                    }
-                    level.setBlock(p.below(layersNew + 1), rigidDirt, Block.UPDATE_ALL);
+                    writer.fillColumn(p.below(layersOld + 1), layersNew - layersOld, state);
+                    writer.setBlock(p.below(layersNew + 1), rigidDirt);
                 }
             }
         }
+        writer.finish();
 
         return upgradeSize || upgradeLayers;
     }
@@ -753,10 +1090,13 @@ public final class TentPlacer {
      */
     @Nullable
     public static StructureTemplate getTemplate(final Level level, final TentType type, final TentSize size) {
+        // use the template that was loaded when the server started
+        StructureTemplate template = TentTemplateCache.get(type, size, false);
+        if (template != null) {
+            return template;
+        }
         // determine structure to use
-        String templateName = "tent/" + size.getSerializedName() + "_" + type.getSerializedName();
-        ResourceLocation templateId = new ResourceLocation(NomadicTents.MODID, templateName);
-        return getTemplate(level, templateId);
+        return getTemplate(level, TentTemplateCache.getTemplateId(type, size, false));
     }
 
     /**
@@ -767,10 +1107,13 @@ public final class TentPlacer {
      */
     @Nullable
     public static StructureTemplate getDecorTemplate(final Level level, final TentType type, final TentSize size) {
+        // use the template that was loaded when the server started
+        StructureTemplate template = TentTemplateCache.get(type, size, true);
+        if (template != null) {
+            return template;
+        }
         // determine structure to use
-        String templateName = "tent/decor/" + size.getSerializedName() + "_" + type.getSerializedName();
-        ResourceLocation templateId = new ResourceLocation(NomadicTents.MODID, templateName);
-        return getTemplate(level, templateId);
+        return getTemplate(level, TentTemplateCache.getTemplateId(type, size, true));
     }
 
     /**
@@ -792,39 +1135,61 @@ public final class TentPlacer {
         return template.orElse(null);
     }
 
-    public Set<BlockPos> getTentBlockPositions(final Level level, final BlockPos door, final TentType type, final TentSize size) {
+    /**
+     * Forgets the tent block positions and baked interiors, which are created again from the templates when needed
+     */
+    public void clearCaches() {
+        for (int i = 0, n = templatePositions.length(); i < n; i++) {
+            templatePositions.set(i, null);
+        }
+        for (int i = 0, n = interiorImages.length(); i < n; i++) {
+            interiorImages.set(i, null);
+        }
+    }
+
+    /**
+     * @param level    the world
+     * @param type     the tent type
+     * @param size     the tent size
+     * @param rotation the tent rotation
+     * @return the positions of the tent blocks relative to the door, packed with {@link BlockPos#asLong()}
+     */
+    public long[] getTentBlockOffsets(final Level level, final TentType type, final TentSize size, final Rotation rotation) {
+        final int index = (size.ordinal() * TentType.values().length + type.ordinal()) * Rotation.values().length + rotation.ordinal();
+        // check if positions are added to the table
+        long[] offsets = templatePositions.get(index);
+        if (offsets != null) {
+            return offsets;
+        }
         // ensure server side
         if (level.isClientSide || !(level instanceof ServerLevel)) {
-            return ImmutableSet.of();
-        }
-        // check if positions are added to map
-        if (templatePositions.containsKey(size) && templatePositions.get(size).containsKey(type)) {
-            return templatePositions.get(size).get(type);
+            return new long[0];
         }
         // positions need to be calculated for the first time
         // determine template to use
         StructureTemplate template = getTemplate(level, type, size);
         if (null == template) {
-            return ImmutableSet.of();
+            return new long[0];
         }
-        Rotation rotation = Rotation.NONE;
-        BlockPos origin = door.offset(BlockPos.ZERO.offset(0, 0, -template.getSize().getZ() / 2).rotate(rotation));
-        StructurePlaceSettings placement = new StructurePlaceSettings()
-                .setRotation(rotation);
+        BlockPos origin = BlockPos.ZERO.offset(0, 0, -template.getSize().getZ() / 2).rotate(rotation);
+        StructurePlaceSettings placement = new StructurePlaceSettings();
 
         Set<BlockPos> tentBlocks = new HashSet<>();
-        // load tent block tag
-        TagKey<Block> tentWallTag = BlockTags.create(new ResourceLocation(MODID, "tent/tent_wall"));
         // filter the template for each block and add to a set
-        for (Block b : ForgeRegistries.BLOCKS.tags().getTag(tentWallTag)) {
+        for (Block b : ForgeRegistries.BLOCKS.tags().getTag(TENT_WALL_TAG)) {
             List<StructureTemplate.StructureBlockInfo> filtered = template.filterBlocks(origin, placement, b, false);
             for (StructureTemplate.StructureBlockInfo blockInfo : filtered) {
-                tentBlocks.add(blockInfo.pos());
+                tentBlocks.add(origin.offset(blockInfo.pos().rotate(rotation)));
             }
         }
-        // add positions to the map
-        templatePositions.computeIfAbsent(size, s -> new EnumMap<>(TentType.class)).put(type, ImmutableSet.copyOf(tentBlocks));
-        return tentBlocks;
+        offsets = new long[tentBlocks.size()];
+        int i = 0;
+        for (BlockPos pos : tentBlocks) {
+            offsets[i++] = pos.asLong();
+        }
+        // add positions to the table; threads that compute the same entry produce the same values
+        templatePositions.compareAndSet(index, null, offsets);
+        return templatePositions.get(index);
     }
 
     /**
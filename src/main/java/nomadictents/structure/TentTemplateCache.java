@@ -0,0 +1,139 @@
+package nomadictents.structure;
+
+import net.minecraft.Util;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.level.levelgen.structure.templatesystem.StructureTemplate;
+import nomadictents.NomadicTents;
+import nomadictents.util.TentSize;
+import nomadictents.util.TentType;
+
+import javax.annotation.Nullable;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Loads every tent template and decor template when the server starts, on worker threads.
+ * Once loading is done the templates are published as arrays indexed by {@link TentSize} and {@link TentType}
+ * that are never modified, so {@link TentPlacer#getTemplate} can read them from any thread without locking.
+ */
+public final class TentTemplateCache {
+
+    private static final int TYPES = TentType.values().length;
+    private static final int COUNT = TentSize.values().length * TYPES;
+
+    @Nullable
+    private static volatile StructureTemplate[] templates;
+    @Nullable
+    private static volatile StructureTemplate[] decorTemplates;
+
+    private TentTemplateCache() {
+    }
+
+    /**
+     * Starts loading all templates on worker threads. The cache is filled when every template is loaded.
+     *
+     * @param server the minecraft server
+     */
+    public static void warmup(final MinecraftServer server) {
+        final long start = System.nanoTime();
+        final ResourceLocation[] ids = new ResourceLocation[COUNT * 2];
+        @SuppressWarnings("unchecked")
+        final CompletableFuture<StructureTemplate>[] futures = new CompletableFuture[COUNT * 2];
+        for (TentSize size : TentSize.values()) {
+            for (TentType type : TentType.values()) {
+                int index = getIndex(type, size);
+                ids[index] = getTemplateId(type, size, false);
+                ids[COUNT + index] = getTemplateId(type, size, true);
+            }
+        }
+        for (int i = 0; i < ids.length; i++) {
+            final ResourceLocation id = ids[i];
+            futures[i] = CompletableFuture.supplyAsync(() -> load(server, id), Util.backgroundExecutor());
+        }
+        CompletableFuture.allOf(futures).thenRunAsync(() -> {
+            final StructureTemplate[] loaded = new StructureTemplate[COUNT];
+            final StructureTemplate[] loadedDecor = new StructureTemplate[COUNT];
+            int count = 0;
+            for (int i = 0; i < futures.length; i++) {
+                StructureTemplate template = futures[i].join();
+                if (template != null) {
+                    count++;
+                    if (i < COUNT) {
+                        loaded[i] = template;
+                    } else {
+                        loadedDecor[i - COUNT] = template;
+                    }
+                }
+            }
+            templates = loaded;
+            decorTemplates = loadedDecor;
+            NomadicTents.LOGGER.info("Loaded " + count + " of " + ids.length + " tent templates in "
+                    + (System.nanoTime() - start) / 1000000L + " ms");
+        }, server);
+    }
+
+    /**
+     * @param type  the tent type
+     * @param size  the tent size
+     * @param decor true for the decor template
+     * @return the cached template, or null if it is not loaded yet
+     */
+    @Nullable
+    public static StructureTemplate get(final TentType type, final TentSize size, final boolean decor) {
+        StructureTemplate[] array = decor ? decorTemplates : templates;
+        return array != null ? array[getIndex(type, size)] : null;
+    }
+
+    /**
+     * @param type  the tent type
+     * @param size  the tent size
+     * @param decor true for the decor template
+     * @return the resource location of the template
+     */
+    public static ResourceLocation getTemplateId(final TentType type, final TentSize size, final boolean decor) {
+        String templateName = (decor ? "tent/decor/" : "tent/") + size.getSerializedName() + "_" + type.getSerializedName();
+        return new ResourceLocation(NomadicTents.MODID, templateName);
+    }
+
+    /**
+     * Called when data packs are reloaded or the server stops, so that templates are read from the template manager again.
+     * Also clears the tent data that {@link TentPlacer} derives from the templates.
+     */
+    public static void clear() {
+        templates = null;
+        decorTemplates = null;
+        TentPlacer.getInstance().clearCaches();
+    }
+
+    private static int getIndex(final TentType type, final TentSize size) {
+        return size.ordinal() * TYPES + type.ordinal();
+    }
+
+    /**
+     * Loads and validates a template with the structure template manager, which checks the generated
+     * structures folder before the data packs. Called from a worker thread.
+     *
+     * @param server the minecraft server
+     * @param id     the template ID
+     * @return the template, or null if it is missing or invalid
+     */
+    @Nullable
+    private static StructureTemplate load(final MinecraftServer server, final ResourceLocation id) {
+        try {
+            Optional<StructureTemplate> template = server.getStructureManager().get(id);
+            if (template.isEmpty()) {
+                NomadicTents.LOGGER.warn("Failed to load tent template for " + id);
+                return null;
+            }
+            if (template.get().getSize().getX() <= 0 || template.get().getSize().getY() <= 0 || template.get().getSize().getZ() <= 0) {
+                NomadicTents.LOGGER.warn("Tent template " + id + " is empty");
+                return null;
+            }
+            return template.get();
+        } catch (RuntimeException e) {
+            NomadicTents.LOGGER.error("Failed to read tent template " + id, e);
+            return null;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package nomadictents.structure;
 
 import com.mojang.serialization.Codec;
 import net.minecraft.core.BlockPos;
+import net.minecraft.util.Mth;
 import net.minecraft.util.RandomSource;
 import net.minecraft.world.level.LevelReader;
 import net.minecraft.world.level.levelgen.structure.templatesystem.StructurePlaceSettings;
@@ -30,7 +31,7 @@ public class TepeeStructureProcessor extends StructureProcessor {
             // random pattern using block position as seed
             if (p.getY() % 2 == 0) {
                 int randSeed = p.getY() + rand.hashCode();
-                return new StructureTemplate.StructureBlockInfo(p, TepeeBlock.getRandomPattern(RandomSource.create(randSeed)), null);
+                return new StructureTemplate.StructureBlockInfo(p, TepeeBlock.getPattern(Mth.murmurHash3Mixer(randSeed)), null);
             }
             // random design using existing seeded random
             if (rand.nextInt(100) < NomadicTents.CONFIG.TEPEE_DECORATED_CHANCE.get()) {
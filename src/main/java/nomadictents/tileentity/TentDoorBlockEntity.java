@@ -22,6 +22,7 @@ import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.dimension.LevelStem;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
 import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.BlockHitResult;
 import net.minecraft.world.phys.Vec3;
@@ -30,8 +31,12 @@ import nomadictents.NTSavedData;
 import nomadictents.NomadicTents;
 import nomadictents.dimension.DimensionFactory;
 import nomadictents.dimension.DynamicDimensionHelper;
+import nomadictents.dimension.TentHibernation;
 import nomadictents.item.MalletItem;
+import nomadictents.structure.TentCompletenessIndex;
+import nomadictents.structure.TentConstructionTracker;
 import nomadictents.structure.TentPlacer;
+import nomadictents.util.MonsterPresenceIndex;
 import nomadictents.util.Tent;
 import nomadictents.util.TentSize;
 import nomadictents.util.TentType;
@@ -51,6 +56,7 @@ public class TentDoorBlockEntity extends BlockEntity {
     private static final String SPAWN_ROTATION = "spawn_rot";
     private static final String SPAWN_DIMENSION = "spawn_dim";
     private static final String OWNER = "owner";
+    private static final String BUILDING = "building";
 
     private Tent tent = new Tent(0, TentType.YURT, TentSize.TINY);
     private Direction direction = TentPlacer.TENT_DIRECTION;
@@ -59,6 +65,36 @@ public class TentDoorBlockEntity extends BlockEntity {
     private Vec3 spawnpoint = Vec3.ZERO;
     private float spawnRot;
     private UUID owner;
+    /**
+     * True from the step of a build job that places this door until the job finishes,
+     * so that the next build finishes a tent whose job was stopped
+     */
+    private boolean building;
+
+    /**
+     * The number of ticks before a remembered tent completeness is checked again, in case a block change was missed
+     */
+    private static final long COMPLETE_REVALIDATE_INTERVAL = 100L;
+    /**
+     * Whether the tent was complete the last time it was checked, or null if it needs to be checked again
+     */
+    @Nullable
+    private Boolean complete;
+    private long completeCheckedTime;
+    /**
+     * The tent bounding box used to add this door to the {@link TentCompletenessIndex}, or null if it is not indexed
+     */
+    @Nullable
+    private BoundingBox indexedBox;
+    /**
+     * The number of ticks to remember whether a monster may be near the door
+     */
+    private static final long MONSTERS_CHECK_INTERVAL = 10L;
+    private boolean mayContainMonsters;
+    /**
+     * The game time when {@link #mayContainMonsters} must be checked again
+     */
+    private long nextMonsterCheck;
 
     public TentDoorBlockEntity(BlockPos pos, BlockState blockState) {
         super(NTRegistry.TENT_BLOCK_ENTITY.get(), pos, blockState);
@@ -186,11 +222,16 @@ public class TentDoorBlockEntity extends BlockEntity {
         if (this.owner != null) {
             tag.putUUID(OWNER, owner);
         }
+        // save build state
+        if (this.building) {
+            tag.putBoolean(BUILDING, true);
+        }
     }
 
     @Override
     public void load(CompoundTag tag) {
         super.load(tag);
+        this.invalidateComplete();
         // load tent
         CompoundTag tentTag = tag.getCompound(TENT);
         this.tent = new Tent(tentTag);
@@ -213,6 +254,8 @@ public class TentDoorBlockEntity extends BlockEntity {
         if (tag.contains(OWNER)) {
             this.owner = tag.getUUID(OWNER);
         }
+        // load build state
+        this.building = tag.getBoolean(BUILDING);
     }
 
     /**
@@ -251,8 +294,7 @@ public class TentDoorBlockEntity extends BlockEntity {
             return TentDoorResult.DENY_OTHER;
         }
         // prevent when tent is incomplete (skip this check when inside tent)
-        TentPlacer tentPlacer = TentPlacer.getInstance();
-        if (!tentPlacer.isTent(entity.level(), this.worldPosition, this.tent.getType(), TentPlacer.getOverworldSize(this.tent.getSize()), this.direction)) {
+        if (!this.isComplete()) {
             return TentDoorResult.DENY_INCOMPLETE;
         }
         return TentDoorResult.ALLOW;
@@ -286,13 +328,75 @@ public class TentDoorBlockEntity extends BlockEntity {
             }
         }
         // prevent when tent is incomplete
-        TentPlacer tentPlacer = TentPlacer.getInstance();
-        if (!tentPlacer.isTent(entity.level(), this.worldPosition, this.tent.getType(), TentPlacer.getOverworldSize(this.tent.getSize()), this.direction)) {
+        if (!this.isComplete()) {
             return TentDoorResult.DENY_INCOMPLETE;
         }
         return TentDoorResult.ALLOW;
     }
 
+    /**
+     * Checks whether the tent is complete, remembering the result until a block inside the tent changes
+     *
+     * @return true if the tent is complete
+     */
+    public boolean isComplete() {
+        if (null == this.level || this.level.isClientSide()) {
+            return false;
+        }
+        final long gameTime = this.level.getGameTime();
+        if (null == this.complete || gameTime - this.completeCheckedTime >= COMPLETE_REVALIDATE_INTERVAL) {
+            TentPlacer tentPlacer = TentPlacer.getInstance();
+            TentSize size = TentPlacer.getOverworldSize(this.tent.getSize());
+            this.complete = tentPlacer.isTent(this.level, this.worldPosition, this.tent.getType(), size, this.direction);
+            this.completeCheckedTime = gameTime;
+            // listen for block changes inside the tent
+            if (null == this.indexedBox) {
+                this.indexedBox = tentPlacer.getTentBoundingBox(this.level, this.worldPosition, this.tent.getType(), size, this.direction);
+                if (this.indexedBox != null) {
+                    TentCompletenessIndex.add(this.level, this, this.indexedBox);
+                }
+            }
+        }
+        return this.complete;
+    }
+
+    /**
+     * Called by the {@link TentCompletenessIndex} when a block changes in a chunk that contains this tent
+     *
+     * @param pos the block position
+     */
+    public void onTentBlockChanged(final BlockPos pos) {
+        if (this.indexedBox != null && this.indexedBox.isInside(pos)) {
+            this.complete = null;
+        }
+    }
+
+    /**
+     * Forgets the remembered tent completeness and removes this door from the {@link TentCompletenessIndex}
+     */
+    private void invalidateComplete() {
+        this.complete = null;
+        if (this.indexedBox != null && this.level != null) {
+            TentCompletenessIndex.remove(this.level, this, this.indexedBox);
+        }
+        this.indexedBox = null;
+    }
+
+    @Override
+    public void setRemoved() {
+        invalidateComplete();
+        if (this.level != null && !this.level.isClientSide) {
+            TentConstructionTracker.remove(this.level, this.worldPosition);
+        }
+        super.setRemoved();
+    }
+
+    @Override
+    public void onChunkUnloaded() {
+        invalidateComplete();
+        super.onChunkUnloaded();
+    }
+
     public void onEnter(final Entity entity) {
         // ensure server side
         if (entity.level().isClientSide || null == entity.getServer()) {
@@ -312,24 +416,43 @@ public class TentDoorBlockEntity extends BlockEntity {
                 DynamicDimensionHelper.exitTent(entity, targetLevel, this.spawnpoint, this.spawnRot);
             }
         } else {
+            // ignore entities that are already waiting to enter a tent
+            if (DynamicDimensionHelper.isEnteringTent(entity)) {
+                return;
+            }
             // teleport to tent dimension
             NTSavedData ntSavedData = NTSavedData.get(server);
             // get or create target level
             ResourceKey<Level> world = ntSavedData.getOrCreateKey(server, this.tent.getId());
+            // prevent the level from hibernating while the entity is on its way
+            TentHibernation.addPending(world);
             ServerLevel targetLevel = DynamicDimensionHelper.getOrCreateWorld(server, world, DimensionFactory::createDimension);
             // teleport entity to tent dimension
             if (targetLevel != null) {
                 DynamicDimensionHelper.enterTent(entity, targetLevel, this.tent);
             }
+            TentHibernation.removePending(server, world);
         }
     }
 
     /**
+     * Checks for monsters near the player. The {@link MonsterPresenceIndex} is checked at most once every
+     * {@link #MONSTERS_CHECK_INTERVAL} ticks, and entities are only queried when it has a monster in a nearby section.
+     *
      * @param player a player
-     * @return true if there are monsters within 8 blocks of the entity
+     * @return true if there are monsters near the door that prevent the player from resting
      */
-    private boolean monstersNearby(Player player) {
+    public boolean monstersNearby(Player player) {
+        final long gameTime = player.level().getGameTime();
         final AABB box = new AABB(this.worldPosition).inflate(8.0D, 5.0D, 8.0D);
+        if (gameTime >= this.nextMonsterCheck) {
+            this.mayContainMonsters = MonsterPresenceIndex.mayContainMonsters(player.level(), box);
+            this.nextMonsterCheck = gameTime + MONSTERS_CHECK_INTERVAL;
+        }
+        // only query entities when a monster is in one of the nearby sections
+        if (!this.mayContainMonsters) {
+            return false;
+        }
         List<Monster> list = player.level().getEntitiesOfClass(Monster.class, box, e -> e.isPreventingPlayerRest(player));
         return !list.isEmpty();
     }
@@ -340,6 +463,7 @@ public class TentDoorBlockEntity extends BlockEntity {
 
     public void setTent(Tent tent) {
         this.tent = tent;
+        this.invalidateComplete();
         this.setChanged();
     }
 
@@ -349,6 +473,7 @@ public class TentDoorBlockEntity extends BlockEntity {
 
     public void setDirection(Direction direction) {
         this.direction = direction;
+        this.invalidateComplete();
         this.setChanged();
     }
 
@@ -383,6 +508,15 @@ public class TentDoorBlockEntity extends BlockEntity {
         this.setChanged();
     }
 
+    public boolean isBuilding() {
+        return building;
+    }
+
+    public void setBuilding(boolean building) {
+        this.building = building;
+        this.setChanged();
+    }
+
     public UUID getOwner() {
         return owner;
     }
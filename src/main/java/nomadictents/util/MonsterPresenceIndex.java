@@ -0,0 +1,119 @@
+package nomadictents.util;
+
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.monster.Monster;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.AABB;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Number of monsters in each chunk section of each server level, kept up to date as monsters
+ * join a level, move between sections, and leave. This can tell that no monster is inside a box
+ * without an entity query, so the query only runs when a monster might be nearby.
+ */
+public final class MonsterPresenceIndex {
+
+    /**
+     * Map where keys = {Level} and value = {Map where keys = {Section position} and value = {Number of monsters in the section}}
+     */
+    private static final Map<ResourceKey<Level>, Long2IntMap> MONSTERS = new HashMap<>();
+
+    private MonsterPresenceIndex() {
+    }
+
+    /**
+     * Called when an entity is added to a server level
+     *
+     * @param entity the entity
+     */
+    public static void onJoin(final Entity entity) {
+        if (entity instanceof Monster) {
+            add(entity.level().dimension(), SectionPos.asLong(entity.blockPosition()), 1);
+        }
+    }
+
+    /**
+     * Called when an entity is removed from a server level
+     *
+     * @param entity the entity
+     */
+    public static void onLeave(final Entity entity) {
+        if (entity instanceof Monster) {
+            add(entity.level().dimension(), SectionPos.asLong(entity.blockPosition()), -1);
+        }
+    }
+
+    /**
+     * Called when an entity in a server level moves to a different chunk section
+     *
+     * @param entity     the entity
+     * @param oldSection the previous section position, packed with {@link SectionPos#asLong()}
+     * @param newSection the new section position, packed with {@link SectionPos#asLong()}
+     */
+    public static void onMove(final Entity entity, final long oldSection, final long newSection) {
+        if (entity instanceof Monster) {
+            add(entity.level().dimension(), oldSection, -1);
+            add(entity.level().dimension(), newSection, 1);
+        }
+    }
+
+    /**
+     * @param level the level
+     * @param box   the area to check
+     * @return true if a monster may be inside the box. When false, there are no monsters in any section the box touches.
+     */
+    public static boolean mayContainMonsters(final Level level, final AABB box) {
+        Long2IntMap sections = MONSTERS.get(level.dimension());
+        if (null == sections) {
+            return false;
+        }
+        int minX = SectionPos.posToSectionCoord(box.minX);
+        int minY = SectionPos.posToSectionCoord(box.minY);
+        int minZ = SectionPos.posToSectionCoord(box.minZ);
+        int maxX = SectionPos.posToSectionCoord(box.maxX);
+        int maxY = SectionPos.posToSectionCoord(box.maxY);
+        int maxZ = SectionPos.posToSectionCoord(box.maxZ);
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    if (sections.get(SectionPos.asLong(x, y, z)) > 0) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Called when a level is unloaded
+     *
+     * @param key the level
+     */
+    public static void onUnload(final ResourceKey<Level> key) {
+        MONSTERS.remove(key);
+    }
+
+    /**
+     * Called when the server stops
+     */
+    public static void clear() {
+        MONSTERS.clear();
+    }
+
+    private static void add(final ResourceKey<Level> key, final long section, final int amount) {
+        Long2IntMap sections = MONSTERS.computeIfAbsent(key, k -> new Long2IntOpenHashMap());
+        int count = sections.get(section) + amount;
+        if (count > 0) {
+            sections.put(section, count);
+        } else {
+            sections.remove(section);
+        }
+    }
+}
@@ -3,12 +3,15 @@ package nomadictents.util;
 import net.minecraft.core.BlockPos;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.world.item.DyeColor;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import net.minecraftforge.common.util.INBTSerializable;
 import net.minecraftforge.registries.ForgeRegistries;
+import nomadictents.NTSavedData;
 import nomadictents.NomadicTents;
+import nomadictents.dimension.TentGrid;
 import nomadictents.structure.TentPlacer;
 
 import javax.annotation.Nullable;
@@ -88,10 +91,16 @@ public final class Tent implements INBTSerializable<CompoundTag> {
     }
 
     /**
-     * @param id the tent ID
+     * @param server the minecraft server
+     * @param id     the tent ID
      * @return the block position of the tent door inside a tent
      */
-    public static BlockPos calculatePos(final int id) {
+    public static BlockPos calculatePos(final MinecraftServer server, final int id) {
+        // tents in a shared dimension use the door position of their grid cell
+        TentGrid.Cell cell = NTSavedData.get(server).getCell(id);
+        if (cell != null) {
+            return cell.getDoorPos();
+        }
         return new BlockPos(0, TentPlacer.TENT_Y, 0);
     }
 